@@ -0,0 +1,129 @@
+package org.enricogiurin.vocabulary.api.jooq;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.enricogiurin.vocabulary.api.jooq.vocabulary.tables.Word.WORD;
+import static org.jooq.impl.DSL.param;
+
+import com.yourrents.services.common.searchable.FilterCondition;
+import com.yourrents.services.common.searchable.FilterCriteria;
+import com.yourrents.services.common.searchable.Searchable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.enricogiurin.vocabulary.api.jooq.CustomJooqUtils.CompiledSearch;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Query;
+import org.jooq.SQLDialect;
+import org.jooq.SelectFinalStep;
+import org.jooq.impl.DSL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Cost of the SQL of a paginated and filtered query of words, built and rendered on every request
+ * ({@link #buildAndRender}) or taken from the {@link CompiledQueryCache} ({@link #cached}). No
+ * database is involved: both end with the rendering done by jOOQ before the execution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompiledQueryBenchmark {
+
+  private static final Map<String, Field<?>> FIELDS = Map.of(
+      "sentence", WORD.SENTENCE,
+      "translation", WORD.TRANSLATION,
+      "languageTo", WORD.LANGUAGE_TO);
+  private static final Function<String, Field<?>> FIELD_MAPPER = name -> {
+    Field<?> field = FIELDS.get(name);
+    if (field == null) {
+      throw new IllegalArgumentException("Unsupported field: " + name);
+    }
+    return field;
+  };
+
+  private final DSLContext dsl = DSL.using(SQLDialect.POSTGRES);
+  private final CustomJooqUtils jooqUtils = new CustomJooqUtils();
+  private final CompiledQueryCache compiledQueries =
+      new CompiledQueryCache(dsl, new SimpleMeterRegistry());
+
+  private final Searchable filter = FilterCriteria.of(
+      FilterCondition.of("languageTo", CustomJooqUtils.EQUAL, "ITALIAN"),
+      FilterCondition.of("sentence", CustomJooqUtils.CONTAINS_IGNORE_CASE, "ca"));
+  private final Pageable pageable = PageRequest.of(2, 20, Sort.by("sentence", "translation"));
+
+  @Setup
+  public void setUp() {
+    cached();
+  }
+
+  @Benchmark
+  public String buildAndRender() {
+    Query query = jooqUtils.paginate(dsl,
+        jooqUtils.getQueryWithConditionsAndSorts(select(WORD.USER_ID.eq(1)),
+            filter, FIELD_MAPPER, pageable, FIELD_MAPPER),
+        pageable.getPageSize(), pageable.getOffset());
+    return dsl.render(query);
+  }
+
+  @Benchmark
+  public String cached() {
+    CompiledSearch search = jooqUtils.compileSearch(filter, FIELD_MAPPER,
+        pageable.getSort(), FIELD_MAPPER);
+    Map<String, Object> values = new HashMap<>(search.values());
+    values.put("userId", 1);
+    values.put(CustomJooqUtils.LIMIT_PARAM, pageable.getPageSize());
+    values.put(CustomJooqUtils.OFFSET_PARAM, pageable.getOffset());
+    Query query = compiledQueries.query("benchmark", search.shape(),
+        () -> jooqUtils.paginate(dsl,
+            jooqUtils.getTemplateWithConditionsAndSorts(
+                select(WORD.USER_ID.eq(param("userId", WORD.USER_ID))),
+                search.shape(), FIELD_MAPPER, FIELD_MAPPER),
+            param(CustomJooqUtils.LIMIT_PARAM, Integer.class),
+            param(CustomJooqUtils.OFFSET_PARAM, Long.class)),
+        values);
+    return dsl.render(query);
+  }
+
+  private SelectFinalStep<?> select(Condition byUser) {
+    return dsl.select(WORD.EXTERNAL_ID, WORD.SENTENCE, WORD.TRANSLATION, WORD.LANGUAGE_TO)
+        .from(WORD)
+        .where(byUser);
+  }
+}
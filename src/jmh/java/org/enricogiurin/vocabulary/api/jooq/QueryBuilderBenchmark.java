@@ -0,0 +1,108 @@
+package org.enricogiurin.vocabulary.api.jooq;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.enricogiurin.vocabulary.api.jooq.vocabulary.tables.Word.WORD;
+
+import com.yourrents.services.common.searchable.FilterCondition;
+import com.yourrents.services.common.searchable.FilterCriteria;
+import com.yourrents.services.common.searchable.Searchable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Query;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Building and rendering the paginated query of GET /me/words with
+ * {@link CustomJooqUtils#getQueryWithConditionsAndSorts} and {@link CustomJooqUtils#paginate},
+ * for an increasing number of filter conditions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBuilderBenchmark {
+
+  private static final Map<String, Field<?>> FIELDS = Map.of(
+      "sentence", WORD.SENTENCE,
+      "translation", WORD.TRANSLATION,
+      "language", WORD.LANGUAGE,
+      "languageTo", WORD.LANGUAGE_TO);
+  private static final Function<String, Field<?>> FIELD_MAPPER = name -> {
+    Field<?> field = FIELDS.get(name);
+    if (field == null) {
+      throw new IllegalArgumentException("Unsupported field: " + name);
+    }
+    return field;
+  };
+  private static final List<FilterCondition> CONDITIONS = List.of(
+      FilterCondition.of("languageTo", CustomJooqUtils.EQUAL, "ITALIAN"),
+      FilterCondition.of("sentence", CustomJooqUtils.CONTAINS_IGNORE_CASE, "ca"),
+      FilterCondition.of("language", CustomJooqUtils.IN, "ENGLISH,GERMAN"));
+
+  @Param({"0", "1", "3"})
+  int conditions;
+
+  private final DSLContext dsl = DSL.using(SQLDialect.POSTGRES);
+  private final CustomJooqUtils jooqUtils = new CustomJooqUtils();
+  private final Pageable pageable = PageRequest.of(2, 20, Sort.by("sentence", "translation"));
+  private Searchable filter;
+
+  @Setup
+  public void setUp() {
+    filter = FilterCriteria.of(CONDITIONS.subList(0, conditions)
+        .toArray(FilterCondition[]::new));
+  }
+
+  @Benchmark
+  public String render() {
+    Query query = jooqUtils.paginate(dsl,
+        jooqUtils.getQueryWithConditionsAndSorts(
+            dsl.select(WORD.EXTERNAL_ID, WORD.SENTENCE, WORD.TRANSLATION, WORD.DESCRIPTION,
+                    WORD.LANGUAGE, WORD.LANGUAGE_TO)
+                .from(WORD)
+                .where(WORD.USER_ID.eq(1)),
+            filter, FIELD_MAPPER, pageable, FIELD_MAPPER),
+        pageable.getPageSize(), pageable.getOffset());
+    return dsl.render(query);
+  }
+}
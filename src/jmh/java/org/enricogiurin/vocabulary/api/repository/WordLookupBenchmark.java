@@ -0,0 +1,131 @@
+package org.enricogiurin.vocabulary.api.repository;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.enricogiurin.vocabulary.api.jooq.vocabulary.Tables.USER;
+import static org.enricogiurin.vocabulary.api.jooq.vocabulary.Tables.WORD;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.enricogiurin.vocabulary.api.jooq.CompiledQueryCache;
+import org.enricogiurin.vocabulary.api.jooq.CustomJooqUtils;
+import org.enricogiurin.vocabulary.api.model.Language;
+import org.enricogiurin.vocabulary.api.model.Word;
+import org.jooq.CloseableDSLContext;
+import org.jooq.Record;
+import org.jooq.impl.DSL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookup of a single word by uuid against a running database. {@link #userJoin} is the select
+ * before user-005, joining the user table to filter on its id; {@link #findByExternalId} and
+ * {@link #findByExternalIdWithKeycloakId} run the queries {@link WordRepository} builds now.
+ *
+ * <p>The database defaults to the one of {@code application.yml} and can be changed with
+ * {@code -Dbenchmark.db.url}, {@code -Dbenchmark.db.username} and
+ * {@code -Dbenchmark.db.password}. A user with {@link #words} words is created in the setup and
+ * deleted in the tear down.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordLookupBenchmark {
+
+  @Param({"100", "10000"})
+  int words;
+
+  private CloseableDSLContext dsl;
+  private WordRepository repository;
+  private Integer userId;
+  private String keycloakId;
+  private UUID uuid;
+
+  @Setup
+  public void setUp() {
+    dsl = DSL.using(
+        System.getProperty("benchmark.db.url", "jdbc:postgresql://localhost:25432/vocabulary_api"),
+        System.getProperty("benchmark.db.username", "enrico"),
+        System.getProperty("benchmark.db.password", "enrico"));
+    repository = new WordRepository(dsl, new CustomJooqUtils(),
+        new CompiledQueryCache(dsl, new SimpleMeterRegistry()));
+    keycloakId = UUID.randomUUID().toString();
+    userId = dsl.insertInto(USER, USER.KEYCLOAKID, USER.USERNAME)
+        .values(keycloakId, "benchmark")
+        .returning(USER.ID)
+        .fetchOne(USER.ID);
+    List<Word> created = repository.createAll(IntStream.range(0, words)
+        .mapToObj(i -> new Word(null, "sentence " + i, "translation " + i, null,
+            Language.ENGLISH, Language.ITALIAN))
+        .toList(), userId);
+    uuid = created.get(words / 2).uuid();
+    dsl.execute("ANALYZE vocabulary.word");
+  }
+
+  @TearDown
+  public void tearDown() {
+    dsl.deleteFrom(WORD).where(WORD.USER_ID.eq(userId)).execute();
+    dsl.deleteFrom(USER).where(USER.ID.eq(userId)).execute();
+    dsl.close();
+  }
+
+  @Benchmark
+  public Record userJoin() {
+    return dsl.select(
+            WORD.EXTERNAL_ID.as(WordRepository.UUID_ALIAS),
+            WORD.SENTENCE.as(WordRepository.SENTENCE_ALIAS),
+            WORD.TRANSLATION.as(WordRepository.TRANSLATION_ALIAS),
+            WORD.DESCRIPTION.as(WordRepository.DESCRIPTION_ALIAS),
+            WORD.LANGUAGE.as(WordRepository.LANGUAGE_ALIAS),
+            WORD.LANGUAGE_TO.as(WordRepository.LANGUAGE_TO_ALIAS))
+        .from(WORD)
+        .join(USER).on(WORD.USER_ID.eq(USER.ID))
+        .where(USER.ID.eq(userId))
+        .and(WORD.EXTERNAL_ID.eq(uuid))
+        .fetchOne();
+  }
+
+  @Benchmark
+  public Word findByExternalId() {
+    return repository.findByExternalId(uuid, userId).orElseThrow();
+  }
+
+  @Benchmark
+  public Word findByExternalIdWithKeycloakId() {
+    return repository.findByExternalId(uuid, keycloakId).orElseThrow();
+  }
+}
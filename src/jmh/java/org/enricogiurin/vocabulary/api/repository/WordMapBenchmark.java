@@ -0,0 +1,93 @@
+package org.enricogiurin.vocabulary.api.repository;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.enricogiurin.vocabulary.api.jooq.vocabulary.tables.Word.WORD;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.enricogiurin.vocabulary.api.jooq.CompiledQueryCache;
+import org.enricogiurin.vocabulary.api.jooq.CustomJooqUtils;
+import org.enricogiurin.vocabulary.api.model.Language;
+import org.enricogiurin.vocabulary.api.model.Word;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mapping a page of fetched records to {@link Word} with {@link WordRepository#map}, the records
+ * have the aliased fields of {@link WordRepository#getSelect(Integer)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordMapBenchmark {
+
+  @Param({"20", "500"})
+  int pageSize;
+
+  private final DSLContext dsl = DSL.using(SQLDialect.POSTGRES);
+  private final WordRepository repository = new WordRepository(dsl, new CustomJooqUtils(),
+      new CompiledQueryCache(dsl, new SimpleMeterRegistry()));
+  private Result<Record> records;
+
+  @Setup
+  public void setUp() {
+    Field<?>[] fields = {
+        WORD.EXTERNAL_ID.as(WordRepository.UUID_ALIAS),
+        WORD.SENTENCE.as(WordRepository.SENTENCE_ALIAS),
+        WORD.TRANSLATION.as(WordRepository.TRANSLATION_ALIAS),
+        WORD.DESCRIPTION.as(WordRepository.DESCRIPTION_ALIAS),
+        WORD.LANGUAGE.as(WordRepository.LANGUAGE_ALIAS),
+        WORD.LANGUAGE_TO.as(WordRepository.LANGUAGE_TO_ALIAS)};
+    records = dsl.newResult(fields);
+    for (int i = 0; i < pageSize; i++) {
+      Record record = dsl.newRecord(fields);
+      record.fromArray(UUID.randomUUID(), "sentence " + i, "translation " + i,
+          i % 2 == 0 ? null : "description " + i, Language.ENGLISH, Language.ITALIAN);
+      records.add(record);
+    }
+  }
+
+  @Benchmark
+  public List<Word> map() {
+    return records.map(repository::map);
+  }
+}
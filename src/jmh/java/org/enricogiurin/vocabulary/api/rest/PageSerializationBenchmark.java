@@ -0,0 +1,78 @@
+package org.enricogiurin.vocabulary.api.rest;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.enricogiurin.vocabulary.api.model.Language;
+import org.enricogiurin.vocabulary.api.model.Word;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serialising a {@code Page<Word>} as GET /me/words does: pages are rendered through
+ * {@link PagedModel}, see the {@code pageSerializationMode} of the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+  @Param({"20", "500"})
+  int pageSize;
+
+  private final ObjectWriter writer = Jackson2ObjectMapperBuilder.json().build().writer();
+  private PagedModel<Word> page;
+
+  @Setup
+  public void setUp() {
+    List<Word> words = IntStream.range(0, pageSize)
+        .mapToObj(i -> new Word(UUID.randomUUID(), "sentence " + i, "translation " + i,
+            i % 2 == 0 ? null : "description " + i, Language.ENGLISH, Language.ITALIAN))
+        .toList();
+    page = new PagedModel<>(new PageImpl<>(words, PageRequest.of(0, pageSize), 10_000));
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return writer.writeValueAsBytes(page);
+  }
+}
@@ -0,0 +1,107 @@
+package org.enricogiurin.vocabulary.api.security;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+
+/**
+ * Authentication of a request with a bearer token: verifying the RS256 signature, validating the
+ * claims and extracting the authorities, against the same token found in
+ * {@link CachingJwtAuthenticationManager}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+  private static final String CLIENT_ID = "vocabulary-rest-api";
+
+  private AuthenticationManager uncached;
+  private AuthenticationManager cached;
+  private String token;
+
+  @Setup
+  public void setUp() throws JOSEException {
+    RSAKey key = new RSAKeyGenerator(2048).keyID("benchmark").generate();
+    SignedJWT jwt = new SignedJWT(
+        new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+        new JWTClaimsSet.Builder()
+            .subject("f95cb50f-5f3b-4b71-9f8b-3495d47622cf")
+            .issueTime(new Date())
+            .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+            .claim("preferred_username", "enrico")
+            .claim("resource_access", Map.of(
+                CLIENT_ID, Map.of("roles", List.of("user", "admin")),
+                "account", Map.of("roles", List.of("manage-account", "view-profile"))))
+            .build());
+    jwt.sign(new RSASSASigner(key));
+    token = jwt.serialize();
+
+    JwtAuthenticationProvider provider = new JwtAuthenticationProvider(
+        NimbusJwtDecoder.withPublicKey(key.toRSAPublicKey()).build());
+    provider.setJwtAuthenticationConverter(new KeycloakJwtTokenConverter(CLIENT_ID,
+        KeycloakJwtTokenConverterBenchmark.cachedUserIds()));
+    uncached = new ProviderManager(provider);
+    cached = new CachingJwtAuthenticationManager(uncached, 1000, new SimpleMeterRegistry());
+  }
+
+  @Benchmark
+  public Authentication uncached() {
+    return uncached.authenticate(new BearerTokenAuthenticationToken(token));
+  }
+
+  @Benchmark
+  public Authentication cached() {
+    return cached.authenticate(new BearerTokenAuthenticationToken(token));
+  }
+}
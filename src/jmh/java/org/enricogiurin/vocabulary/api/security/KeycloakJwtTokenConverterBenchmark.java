@@ -0,0 +1,84 @@
+package org.enricogiurin.vocabulary.api.security;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.enricogiurin.vocabulary.api.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+/**
+ * Converting a decoded Keycloak access token to the authentication of the request, done by
+ * {@link KeycloakJwtTokenConverter} on every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeycloakJwtTokenConverterBenchmark {
+
+  private static final String CLIENT_ID = "vocabulary-rest-api";
+
+  private final KeycloakJwtTokenConverter converter =
+      new KeycloakJwtTokenConverter(CLIENT_ID, cachedUserIds());
+  private final Jwt jwt = Jwt.withTokenValue("token")
+      .header("alg", "RS256")
+      .subject("f95cb50f-5f3b-4b71-9f8b-3495d47622cf")
+      .issuedAt(Instant.now())
+      .expiresAt(Instant.now().plusSeconds(300))
+      .claim("preferred_username", "enrico")
+      .claim("resource_access", Map.of(
+          CLIENT_ID, Map.of("roles", List.of("user", "admin")),
+          "account", Map.of("roles", List.of("manage-account", "view-profile"))))
+      .build();
+
+  @Benchmark
+  public JwtAuthenticationToken convert() {
+    return converter.convert(jwt);
+  }
+
+  /**
+   * The ids of the users as found in the cache of {@link UserRepository}, without the DB.
+   */
+  static UserRepository cachedUserIds() {
+    return new UserRepository(null) {
+      @Override
+      public Optional<Integer> findUserIdByKeycloakId(String keycloakId) {
+        return Optional.of(1000000);
+      }
+    };
+  }
+}
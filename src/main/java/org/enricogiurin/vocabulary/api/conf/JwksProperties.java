@@ -0,0 +1,119 @@
+package org.enricogiurin.vocabulary.api.conf;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "application.jwks")
+public class JwksProperties {
+
+  /**
+   * Whether the keys are fetched when the application is ready, rather than by the first
+   * authenticated request.
+   */
+  private boolean prewarm = true;
+
+  /**
+   * How long the fetched keys are used before fetching them again.
+   */
+  private Duration cacheTtl = Duration.ofMinutes(5);
+
+  /**
+   * How long a request waits for a refresh of the keys done by another request.
+   */
+  private Duration refreshTimeout = Duration.ofSeconds(15);
+
+  /**
+   * How long before the expiry of the cached keys they are refreshed in the background, started
+   * by the first request in this window.
+   */
+  private Duration refreshAhead = Duration.ofSeconds(30);
+
+  /**
+   * How long the last fetched keys are still used while the JWK set can't be fetched.
+   */
+  private Duration outageGracePeriod = Duration.ofHours(1);
+
+  /**
+   * Timeouts of the HTTP calls fetching the JWK set.
+   */
+  private Duration connectTimeout = Duration.ofSeconds(2);
+  private Duration readTimeout = Duration.ofSeconds(2);
+
+  public boolean isPrewarm() {
+    return prewarm;
+  }
+
+  public void setPrewarm(boolean prewarm) {
+    this.prewarm = prewarm;
+  }
+
+  public Duration getCacheTtl() {
+    return cacheTtl;
+  }
+
+  public void setCacheTtl(Duration cacheTtl) {
+    this.cacheTtl = cacheTtl;
+  }
+
+  public Duration getRefreshTimeout() {
+    return refreshTimeout;
+  }
+
+  public void setRefreshTimeout(Duration refreshTimeout) {
+    this.refreshTimeout = refreshTimeout;
+  }
+
+  public Duration getRefreshAhead() {
+    return refreshAhead;
+  }
+
+  public void setRefreshAhead(Duration refreshAhead) {
+    this.refreshAhead = refreshAhead;
+  }
+
+  public Duration getOutageGracePeriod() {
+    return outageGracePeriod;
+  }
+
+  public void setOutageGracePeriod(Duration outageGracePeriod) {
+    this.outageGracePeriod = outageGracePeriod;
+  }
+
+  public Duration getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public void setConnectTimeout(Duration connectTimeout) {
+    this.connectTimeout = connectTimeout;
+  }
+
+  public Duration getReadTimeout() {
+    return readTimeout;
+  }
+
+  public void setReadTimeout(Duration readTimeout) {
+    this.readTimeout = readTimeout;
+  }
+}
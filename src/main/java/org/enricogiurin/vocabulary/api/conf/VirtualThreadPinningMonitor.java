@@ -0,0 +1,107 @@
+package org.enricogiurin.vocabulary.api.conf;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Surfaces the virtual threads pinned to their carrier thread, i.e. blocked inside a
+ * {@code synchronized} block or a native frame: while pinned they hold one of the few carrier
+ * threads and cap the concurrency of the application.
+ * <p>
+ * A JFR stream records the {@value #PINNED_EVENT} events longer than
+ * {@code application.virtual-threads.pinned-threshold}, each one is logged with its stack trace
+ * and timed by the {@value #PINNED_METRIC} metric. Active only with
+ * {@code spring.threads.virtual.enabled}.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+  public static final String PINNED_METRIC = "vocabulary.threads.virtual.pinned";
+
+  static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private static final int LOGGED_FRAMES = 15;
+
+  private final Timer pinned;
+  private final Duration threshold;
+  private RecordingStream stream;
+
+  public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+      @Value("${application.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+    this.pinned = Timer.builder(PINNED_METRIC)
+        .description("Virtual threads pinned to their carrier thread")
+        .register(meterRegistry);
+    this.threshold = threshold;
+  }
+
+  @Override
+  public synchronized void start() {
+    stream = new RecordingStream();
+    stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    stream.onEvent(PINNED_EVENT, this::onPinned);
+    stream.startAsync();
+    log.info("monitoring the virtual threads pinned for more than {}", threshold);
+  }
+
+  @Override
+  public synchronized void stop() {
+    stream.close();
+    stream = null;
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return stream != null;
+  }
+
+  private void onPinned(RecordedEvent event) {
+    pinned.record(event.getDuration());
+    String stackTrace = event.getStackTrace() == null
+        ? ""
+        : event.getStackTrace().getFrames().stream()
+            .limit(LOGGED_FRAMES)
+            .map(VirtualThreadPinningMonitor::toString)
+            .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+    log.warn("virtual thread #{} pinned for {} ms{}",
+        event.getThread() == null ? "?" : event.getThread().getJavaThreadId(),
+        event.getDuration().toMillis(), stackTrace);
+  }
+
+  private static String toString(RecordedFrame frame) {
+    return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+        + ":" + frame.getLineNumber();
+  }
+}
@@ -0,0 +1,123 @@
+package org.enricogiurin.vocabulary.api.conf;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.enricogiurin.vocabulary.api.model.CountMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "application.words")
+public class WordProperties {
+
+  /**
+   * Count mode used when the request does not ask for one.
+   */
+  private CountMode countMode = CountMode.EXACT;
+
+  /**
+   * Page size budget of the paginated word endpoints, larger pages are clamped.
+   */
+  private int maxPageSize = 500;
+
+  /**
+   * Maximum number of words returned by a fuzzy lookup.
+   */
+  private int fuzzyMaxResults = 50;
+
+  /**
+   * Maximum number of words accepted by a single batch request.
+   */
+  private int batchMaxSize = 500;
+
+  /**
+   * Number of rows sent to the database at once while importing words.
+   */
+  private int importChunkSize = 1000;
+
+  /**
+   * Maximum number of row errors reported by an import.
+   */
+  private int importMaxErrors = 100;
+
+  /**
+   * Number of words read from the database at once while exporting, the connection is released
+   * between the chunks.
+   */
+  private int exportFetchSize = 1000;
+
+  public CountMode getCountMode() {
+    return countMode;
+  }
+
+  public void setCountMode(CountMode countMode) {
+    this.countMode = countMode;
+  }
+
+  public int getMaxPageSize() {
+    return maxPageSize;
+  }
+
+  public void setMaxPageSize(int maxPageSize) {
+    this.maxPageSize = maxPageSize;
+  }
+
+  public int getFuzzyMaxResults() {
+    return fuzzyMaxResults;
+  }
+
+  public void setFuzzyMaxResults(int fuzzyMaxResults) {
+    this.fuzzyMaxResults = fuzzyMaxResults;
+  }
+
+  public int getBatchMaxSize() {
+    return batchMaxSize;
+  }
+
+  public void setBatchMaxSize(int batchMaxSize) {
+    this.batchMaxSize = batchMaxSize;
+  }
+
+  public int getImportChunkSize() {
+    return importChunkSize;
+  }
+
+  public void setImportChunkSize(int importChunkSize) {
+    this.importChunkSize = importChunkSize;
+  }
+
+  public int getImportMaxErrors() {
+    return importMaxErrors;
+  }
+
+  public void setImportMaxErrors(int importMaxErrors) {
+    this.importMaxErrors = importMaxErrors;
+  }
+
+  public int getExportFetchSize() {
+    return exportFetchSize;
+  }
+
+  public void setExportFetchSize(int exportFetchSize) {
+    this.exportFetchSize = exportFetchSize;
+  }
+}
@@ -67,6 +67,14 @@ class APIExceptionHandler extends ResponseEntityExceptionHandler {
         new HttpHeaders(), HttpStatus.INTERNAL_SERVER_ERROR, request);
   }
 
+  @ExceptionHandler(BadRequestException.class)
+  public ResponseEntity<Object> badRequest(BadRequestException e, NativeWebRequest request) {
+    log.error(e.getMessage(), e);
+    return super.handleExceptionInternal(e,
+        buildErrorResponse(e.getMessage(), e, request, HttpStatus.BAD_REQUEST.value()),
+        new HttpHeaders(), HttpStatus.BAD_REQUEST, request);
+  }
+
   @ExceptionHandler(KeycloakException.class)
   public ResponseEntity<Object> keycloak(KeycloakException e, NativeWebRequest request) {
     log.error(e.getMessage(), e);
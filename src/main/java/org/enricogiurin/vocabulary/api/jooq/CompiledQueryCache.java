@@ -0,0 +1,125 @@
+package org.enricogiurin.vocabulary.api.jooq;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.jooq.impl.DSL.val;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Param;
+import org.jooq.Record;
+import org.jooq.ResultQuery;
+import org.jooq.Select;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of rendered queries. Building and rendering the jOOQ query of a request costs more than
+ * binding its values, and most requests only differ by the values: a query is built once per
+ * shape, with named params in place of the values, and its SQL is reused with the values of every
+ * following request.
+ * <p>
+ * The hit/miss metrics are exposed as {@value #CACHE_NAME}.
+ */
+@Component
+@Slf4j
+public class CompiledQueryCache {
+
+  public static final String CACHE_NAME = "jooq.compiledQueries";
+
+  private static final int MAXIMUM_SIZE = 1000;
+  // skips the :: of the PostgreSQL casts
+  private static final Pattern NAMED_PARAM = Pattern.compile("(?<!:):(\\w+)");
+
+  private final DSLContext dsl;
+  private final Cache<Key, CompiledQuery> cache;
+
+  public CompiledQueryCache(DSLContext dsl, MeterRegistry meterRegistry) {
+    this.dsl = dsl;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(MAXIMUM_SIZE)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  /**
+   * @param name     the name of the query, e.g. the repository method
+   * @param shape    whatever makes {@code template} render a different SQL, with value semantics
+   * @param template builds the query with named params, called only on a cache miss
+   * @param values   the values of the named params, the params without a value keep the one of
+   *                 the template
+   * @return the query bound to {@code values}, its records have the fields of the template
+   */
+  public ResultQuery<Record> query(String name, Object shape,
+      Supplier<? extends Select<?>> template, Map<String, ?> values) {
+    CompiledQuery compiled = cache.get(new Key(name, shape), key -> compile(key, template.get()));
+    Object[] bindValues = new Object[compiled.params().size()];
+    for (int i = 0; i < bindValues.length; i++) {
+      Param<?> param = compiled.params().get(i);
+      Object value = values.containsKey(param.getParamName())
+          ? values.get(param.getParamName())
+          : param.getValue();
+      bindValues[i] = val(value, param.getDataType());
+    }
+    return dsl.resultQuery(compiled.sql(), bindValues).coerce(compiled.fields());
+  }
+
+  private CompiledQuery compile(Key key, Select<?> template) {
+    Map<String, Param<?>> params = dsl.extractParams(template);
+    Matcher matcher = NAMED_PARAM.matcher(dsl.renderNamedParams(template));
+    List<Param<?>> bound = new ArrayList<>();
+    StringBuilder sql = new StringBuilder();
+    while (matcher.find()) {
+      Param<?> param = params.get(matcher.group(1));
+      if (param != null) {
+        bound.add(param);
+        matcher.appendReplacement(sql, "?");
+      }
+    }
+    matcher.appendTail(sql);
+    if (bound.size() != dsl.extractBindValues(template).size()) {
+      // a named param in a string literal or an identifier would bind the wrong values
+      throw new IllegalStateException("Unable to compile the query " + key.name()
+          + ", found " + bound.size() + " params in: " + sql);
+    }
+    log.debug("compiled query {} for {}: {}", key.name(), key.shape(), sql);
+    return new CompiledQuery(sql.toString(), List.copyOf(bound), template.getSelect());
+  }
+
+  private record Key(String name, Object shape) {
+
+  }
+
+  private record CompiledQuery(String sql, List<Param<?>> params, List<Field<?>> fields) {
+
+  }
+}
@@ -25,24 +25,46 @@ import static org.jooq.impl.DSL.falseCondition;
 import static org.jooq.impl.DSL.field;
 import static org.jooq.impl.DSL.inline;
 import static org.jooq.impl.DSL.max;
+import static org.jooq.impl.DSL.param;
 import static org.jooq.impl.DSL.rowNumber;
 import static org.jooq.impl.DSL.trueCondition;
+import static org.jooq.impl.DSL.val;
 
 import com.yourrents.services.common.searchable.EnumCombinator;
 import com.yourrents.services.common.searchable.Searchable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.enricogiurin.vocabulary.api.exception.BadRequestException;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.DataType;
 import org.jooq.Field;
+import org.jooq.Param;
+import org.jooq.Record;
 import org.jooq.Select;
 import org.jooq.SelectFinalStep;
 import org.jooq.SelectQuery;
 import org.jooq.SortField;
 import org.jooq.Table;
+import org.jooq.exception.DataTypeException;
+import org.jooq.impl.SQLDataType;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -60,6 +82,13 @@ public class CustomJooqUtils {
   public static final String CONTAINS_IGNORE_CASE = "containsIgnoreCase";
   public static final String STARTS_WITH = "startsWith";
   public static final String ENDS_WITH = "endsWith";
+  public static final String IN = "in";
+
+  public static final String LIMIT_PARAM = "limit";
+  public static final String OFFSET_PARAM = "offset";
+
+  private static final String CURSOR_SEPARATOR = ".";
+  private static final String CONDITION_PARAM_PREFIX = "c";
 
 
   public Select<?> paginate(
@@ -67,6 +96,18 @@ public class CustomJooqUtils {
       Select<?> original,
       int limit,
       long offset) {
+    return paginate(ctx, original, val(limit), val(offset));
+  }
+
+  /**
+   * Variant of {@link #paginate(DSLContext, Select, int, long)} taking the limit and the offset as
+   * params, typically named ones to build a template for {@link CompiledQueryCache}.
+   */
+  public Select<?> paginate(
+      DSLContext ctx,
+      Select<?> original,
+      Param<Integer> limit,
+      Param<Long> offset) {
     Table<?> u = original.asTable("u");
     Field<Integer> totalRows = count().over().as("total_rows");
     Field<Integer> row = rowNumber().over().as("row");
@@ -99,22 +140,32 @@ public class CustomJooqUtils {
 
   private Condition getCondition(Searchable filter, Function<String, Field<?>> fieldMapper,
       boolean ignoreNotSupported) {
-    BinaryOperator<Condition> combinator = filter.getCombinator() == EnumCombinator.AND
+    CompiledSearch search = compileSearch(filter, fieldMapper, Sort.unsorted(), fieldMapper,
+        ignoreNotSupported);
+    return getCondition(search.shape(), fieldMapper, search.values());
+  }
+
+  /**
+   * @param values the values of the params, null to build a template with named params
+   */
+  private Condition getCondition(SearchShape shape, Function<String, Field<?>> fieldMapper,
+      Map<String, Object> values) {
+    BinaryOperator<Condition> combinator = shape.combinator() == EnumCombinator.AND
         ? Condition::and
         : Condition::or;
-    Condition identity = filter.getCombinator() == EnumCombinator.AND
+    Condition result = shape.combinator() == EnumCombinator.AND
         ? trueCondition()
         : falseCondition();
-    return filter.getFilter().stream()
-        .filter(c -> !ignoreNotSupported
-            || isFieldSupported(c.getField().toString(), fieldMapper))
-        .map(c -> {
-          Field<?> field = fieldMapper.apply(c.getField().toString());
-          return buildStringCondition(
-              field,
-              c.getOperator().toString(),
-              c.getValue());
-        }).reduce(identity, combinator);
+    for (int i = 0; i < shape.conditions().size(); i++) {
+      ConditionShape condition = shape.conditions().get(i);
+      result = combinator.apply(result, buildCondition(
+          fieldMapper.apply(condition.field()),
+          condition.operator(),
+          condition.arity(),
+          CONDITION_PARAM_PREFIX + i,
+          values));
+    }
+    return result;
   }
 
   private SortField<?>[] getSortFields(Pageable pageable, Function<String, Field<?>> fieldMapper) {
@@ -123,7 +174,12 @@ public class CustomJooqUtils {
 
   private SortField<?>[] getSortFields(Pageable pageable, Function<String, Field<?>> fieldMapper,
       boolean ignoreNotSupported) {
-    return pageable.getSort()
+    return getSortFields(pageable.getSort(), fieldMapper, ignoreNotSupported);
+  }
+
+  private SortField<?>[] getSortFields(Sort orders, Function<String, Field<?>> fieldMapper,
+      boolean ignoreNotSupported) {
+    return orders
         .filter(sort -> !ignoreNotSupported
             || isFieldSupported(sort.getProperty(), fieldMapper))
         .map(sort -> {
@@ -148,7 +204,7 @@ public class CustomJooqUtils {
     }
   }
 
-  public Select<?> getQueryWithConditionsAndSorts(SelectFinalStep<?> query,
+  public SelectQuery<?> getQueryWithConditionsAndSorts(SelectFinalStep<?> query,
       Searchable filter, Function<String, Field<?>> filterFieldMapper,
       Pageable pageable, Function<String, Field<?>> sortFieldMapper) {
     SelectQuery<?> result = query.getQuery();
@@ -159,33 +215,291 @@ public class CustomJooqUtils {
   }
 
   /**
-   * Build a condition for a field
+   * Split a filter and a sort into their {@link SearchShape} and the values of the conditions. The
+   * not supported filter fields and sort properties are ignored.
+   *
+   * @throws BadRequestException if a value can't be converted to the type of its field
+   */
+  public CompiledSearch compileSearch(Searchable filter,
+      Function<String, Field<?>> filterFieldMapper,
+      Sort sort, Function<String, Field<?>> sortFieldMapper) {
+    return compileSearch(filter, filterFieldMapper, sort, sortFieldMapper, true);
+  }
+
+  private CompiledSearch compileSearch(Searchable filter,
+      Function<String, Field<?>> filterFieldMapper,
+      Sort sort, Function<String, Field<?>> sortFieldMapper, boolean ignoreNotSupported) {
+    List<ConditionShape> conditions = new ArrayList<>();
+    Map<String, Object> values = new HashMap<>();
+    filter.getFilter().stream()
+        .filter(c -> !ignoreNotSupported
+            || isFieldSupported(c.getField().toString(), filterFieldMapper))
+        .forEach(c -> {
+          String fieldName = c.getField().toString();
+          String operator = c.getOperator().toString();
+          int arity = putValues(filterFieldMapper.apply(fieldName), operator, c.getValue(),
+              CONDITION_PARAM_PREFIX + conditions.size(), values);
+          conditions.add(new ConditionShape(fieldName, operator, arity));
+        });
+    List<Order> orders = sort
+        .filter(order -> isFieldSupported(order.getProperty(), sortFieldMapper))
+        .toList();
+    return new CompiledSearch(
+        new SearchShape(filter.getCombinator(), List.copyOf(conditions), orders), values);
+  }
+
+  /**
+   * Build the query of a {@link SearchShape} with a named param in place of every value, the
+   * params are named as the values of the {@link CompiledSearch}.
+   */
+  public SelectQuery<?> getTemplateWithConditionsAndSorts(SelectFinalStep<?> query,
+      SearchShape shape, Function<String, Field<?>> filterFieldMapper,
+      Function<String, Field<?>> sortFieldMapper) {
+    SelectQuery<?> result = query.getQuery();
+    result.addConditions(getCondition(shape, filterFieldMapper, null));
+    result.addOrderBy(getSortFields(Sort.by(shape.orders()), sortFieldMapper, false));
+    return result;
+  }
+
+  /**
+   * Keyset (seek) variant of {@link #getQueryWithConditionsAndSorts}: instead of skipping
+   * {@code OFFSET} rows, the query continues right after the row identified by {@code cursor}, so
+   * every window costs the same regardless of how deep the client has scrolled.
+   * <p>
+   * The sort must be unique, see {@link #getSeekSort}.
+   *
+   * @param cursor the token returned by {@link #encodeCursor} for the last row of the previous
+   *               window, null or blank for the first window
+   * @param limit  the maximum number of rows to fetch
+   * @throws BadRequestException if the cursor can't be decoded against the given sort
+   */
+  public SelectQuery<?> getQueryWithConditionsAndSeek(SelectFinalStep<?> query,
+      Searchable filter, Function<String, Field<?>> filterFieldMapper,
+      Sort sort, Function<String, Field<?>> sortFieldMapper,
+      String cursor, long limit) {
+    SelectQuery<?> result = query.getQuery();
+    result.addConditions(getCondition(filter, filterFieldMapper));
+    result.addOrderBy(getSortFields(sort, sortFieldMapper, false));
+    if (cursor != null && !cursor.isBlank()) {
+      result.addSeekAfter(decodeCursor(cursor, sort, sortFieldMapper));
+    }
+    result.addLimit(limit);
+    log.debug("Query with conditions and seek: {}", result);
+    return result;
+  }
+
+  /**
+   * Make a sort usable for keyset pagination: the not supported properties are dropped and
+   * {@code tieBreaker}, which must identify a row, is appended unless already present.
+   */
+  public Sort getSeekSort(Sort sort, Function<String, Field<?>> fieldMapper, String tieBreaker) {
+    List<Order> orders = new ArrayList<>(sort
+        .filter(order -> isFieldSupported(order.getProperty(), fieldMapper))
+        .toList());
+    if (orders.stream().noneMatch(order -> order.getProperty().equals(tieBreaker))) {
+      orders.add(Order.asc(tieBreaker));
+    }
+    return Sort.by(orders);
+  }
+
+  /**
+   * Build the cursor pointing right after the given record. The record must expose every sort
+   * property as a field with the same name. The cursor carries the sort it was built for, so it
+   * is rejected if reused with another one.
+   *
+   * @throws IllegalStateException if a sort value is null, the keyset pagination can't seek from
+   *                               it
+   */
+  public String encodeCursor(Record record, Sort sort) {
+    Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    return Stream.concat(
+            Stream.of(sortSignature(sort)),
+            sort.stream().map(order -> cursorValue(record, order.getProperty())))
+        .map(value -> encoder.encodeToString(value.getBytes(StandardCharsets.UTF_8)))
+        .collect(Collectors.joining(CURSOR_SEPARATOR));
+  }
+
+  private static String cursorValue(Record record, String property) {
+    Object value = record.get(property);
+    if (value == null) {
+      throw new IllegalStateException("Can't build a cursor from the null value of " + property);
+    }
+    return value instanceof Enum<?> e ? e.name() : value.toString();
+  }
+
+  /**
+   * The properties and directions of the sort, e.g. {@code sentence:ASC,uuid:ASC}.
+   */
+  private static String sortSignature(Sort sort) {
+    return sort.stream()
+        .map(order -> order.getProperty() + ":" + order.getDirection())
+        .collect(Collectors.joining(","));
+  }
+
+  private Field<?>[] decodeCursor(String cursor, Sort sort,
+      Function<String, Field<?>> fieldMapper) {
+    List<Order> orders = sort.toList();
+    String[] tokens = cursor.split(Pattern.quote(CURSOR_SEPARATOR), -1);
+    if (tokens.length != orders.size() + 1) {
+      throw new BadRequestException("Invalid cursor for the requested sort: " + cursor);
+    }
+    try {
+      Base64.Decoder decoder = Base64.getUrlDecoder();
+      if (!sortSignature(sort).equals(
+          new String(decoder.decode(tokens[0]), StandardCharsets.UTF_8))) {
+        throw new BadRequestException("Invalid cursor for the requested sort: " + cursor);
+      }
+      Field<?>[] result = new Field<?>[orders.size()];
+      for (int i = 0; i < result.length; i++) {
+        Field<?> field = fieldMapper.apply(orders.get(i).getProperty());
+        String value = new String(decoder.decode(tokens[i + 1]), StandardCharsets.UTF_8);
+        result[i] = toSeekValue(field, value);
+      }
+      return result;
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Invalid cursor: " + cursor, e);
+    }
+  }
+
+  private static <T> Field<T> toSeekValue(Field<T> field, String value) {
+    return val(convert(field, value), field);
+  }
+
+  /**
+   * Convert the value of a condition to the type of the field and put it in {@code values} under
+   * {@code name}, the values of {@value #IN} under {@code name_0}, {@code name_1}, ...
+   *
+   * @return the number of values put, 0 for a null value
+   * @throws BadRequestException if the value can't be converted to the type of the field
+   */
+  private static int putValues(Field<?> field, String operator, Object value, String name,
+      Map<String, Object> values) {
+    if (value == null) {
+      return 0;
+    }
+    switch (operator) {
+      case EQUAL, NOT_EQUAL, GREATER_THAN, GREATER_THAN_OR_EQUAL, LESS_THAN, LESS_THAN_OR_EQUAL ->
+          values.put(name, convert(field, value));
+      case IN -> {
+        List<?> items = toValues(value);
+        for (int i = 0; i < items.size(); i++) {
+          values.put(name + "_" + i, convert(field, items.get(i)));
+        }
+        return items.size();
+      }
+      case CONTAINS, CONTAINS_IGNORE_CASE, STARTS_WITH, ENDS_WITH ->
+          values.put(name, value.toString());
+      default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
+    }
+    return 1;
+  }
+
+  /**
+   * Build a condition for a field, binding the values with the data type of the field so that the
+   * predicate can use the indexes on it. The string operators ({@value #CONTAINS},
+   * {@value #STARTS_WITH}, ...) compare the text of the field instead.
    *
-   * @param field
-   * @param operator
-   * @param value
-   * @return
+   * @param arity  the number of values, see {@link #putValues}
+   * @param values the values put by {@link #putValues}, null to use named params
+   * @return the condition, always true when there is no value
    */
-  private Condition buildStringCondition(Field<?> field, String operator, Object value) {
-    if (value != null) {
-      Field<Object> objField = field.coerce(Object.class);
-      return switch (operator) {
-        case EQUAL -> field.cast(String.class).eq(value.toString());
-        case NOT_EQUAL -> objField.ne(value);
-        case GREATER_THAN -> objField.gt(value);
-        case GREATER_THAN_OR_EQUAL -> objField.ge(value);
-        case LESS_THAN -> objField.lt(value);
-        case LESS_THAN_OR_EQUAL -> objField.le(value);
-        case CONTAINS -> field.cast(String.class).contains(value.toString());
-        case CONTAINS_IGNORE_CASE -> field.cast(String.class).containsIgnoreCase(value.toString());
-        case STARTS_WITH -> field.cast(String.class).startsWith(value.toString());
-        case ENDS_WITH -> field.cast(String.class).endsWith(value.toString());
-        default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
-      };
-    } else {
+  private static <T> Condition buildCondition(Field<T> field, String operator, int arity,
+      String name, Map<String, Object> values) {
+    if (arity == 0) {
       return trueCondition();
     }
+    DataType<T> type = field.getDataType();
+    return switch (operator) {
+      case EQUAL -> field.eq(operand(name, type, values));
+      case NOT_EQUAL -> field.ne(operand(name, type, values));
+      case GREATER_THAN -> field.gt(operand(name, type, values));
+      case GREATER_THAN_OR_EQUAL -> field.ge(operand(name, type, values));
+      case LESS_THAN -> field.lt(operand(name, type, values));
+      case LESS_THAN_OR_EQUAL -> field.le(operand(name, type, values));
+      case IN -> field.in(IntStream.range(0, arity)
+          .mapToObj(i -> operand(name + "_" + i, type, values))
+          .toList());
+      case CONTAINS -> asString(field).contains(operand(name, SQLDataType.VARCHAR, values));
+      case CONTAINS_IGNORE_CASE ->
+          asString(field).containsIgnoreCase(operand(name, SQLDataType.VARCHAR, values));
+      case STARTS_WITH -> asString(field).startsWith(operand(name, SQLDataType.VARCHAR, values));
+      case ENDS_WITH -> asString(field).endsWith(operand(name, SQLDataType.VARCHAR, values));
+      default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
+    };
   }
-}
 
+  private static <T> Field<T> operand(String name, DataType<T> type, Map<String, Object> values) {
+    return values == null
+        ? param(name, type)
+        : val(values.get(name), type);
+  }
 
+  /**
+   * Convert a value to the type of the field. Enums are matched by name or by label
+   * ({@link Enum#toString()}), ignoring the case.
+   *
+   * @throws BadRequestException if the value can't be converted
+   */
+  private static <T> T convert(Field<T> field, Object value) {
+    Class<T> type = field.getType();
+    try {
+      if (type.isEnum() && !type.isInstance(value)) {
+        String text = value.toString().trim();
+        return Arrays.stream(type.getEnumConstants())
+            .filter(constant -> ((Enum<?>) constant).name().equalsIgnoreCase(text)
+                || constant.toString().equalsIgnoreCase(text))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException(
+                "Unexpected value for " + field.getName() + ": " + value));
+      }
+      T result = field.getDataType().convert(value instanceof String text ? text.trim() : value);
+      if (result == null) {
+        throw new IllegalArgumentException("Not convertible to " + type.getSimpleName());
+      }
+      return result;
+    } catch (IllegalArgumentException | DataTypeException e) {
+      throw new BadRequestException(
+          "Invalid value for " + field.getName() + ": " + value, e);
+    }
+  }
+
+  private static List<?> toValues(Object value) {
+    if (value instanceof Collection<?> values) {
+      return List.copyOf(values);
+    }
+    return Arrays.asList(value.toString().split(","));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Field<String> asString(Field<?> field) {
+    return field.getType() == String.class
+        ? (Field<String>) field
+        : field.cast(String.class);
+  }
+
+  /**
+   * The shape of a filter condition.
+   *
+   * @param arity the number of values: 0 for a null value, more than one only for {@value #IN}
+   */
+  public record ConditionShape(String field, String operator, int arity) {
+
+  }
+
+  /**
+   * The shape of a query built from a {@link Searchable} and a {@link Sort}: queries of the same
+   * shape render the same SQL and only differ by the bind values.
+   */
+  public record SearchShape(EnumCombinator combinator, List<ConditionShape> conditions,
+                            List<Order> orders) {
+
+  }
+
+  /**
+   * A {@link Searchable} and a {@link Sort} split into their shape and the values of the
+   * conditions, named as the params of {@link #getTemplateWithConditionsAndSorts}.
+   */
+  public record CompiledSearch(SearchShape shape, Map<String, Object> values) {
+
+  }
+}
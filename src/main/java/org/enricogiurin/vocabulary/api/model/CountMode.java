@@ -0,0 +1,39 @@
+package org.enricogiurin.vocabulary.api.model;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * How the total number of rows is computed when searching a paginated resource.
+ */
+public enum CountMode {
+  /**
+   * Count every matching row: accurate, but the whole filtered set is read on each request.
+   */
+  EXACT,
+  /**
+   * Use the row estimate of the query planner: cheap, but only approximate.
+   */
+  ESTIMATED,
+  /**
+   * Don't count at all: the result only tells whether a next page exists.
+   */
+  NONE
+}
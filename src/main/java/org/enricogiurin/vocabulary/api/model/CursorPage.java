@@ -0,0 +1,36 @@
+package org.enricogiurin.vocabulary.api.model;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+
+/**
+ * A window of results fetched with keyset pagination.
+ *
+ * @param content    the items of this window
+ * @param size       the requested window size
+ * @param nextCursor opaque token to pass back as {@code cursor} to get the next window, null when
+ *                   this is the last one
+ * @param hasNext    whether another window follows this one
+ */
+public record CursorPage<T>(List<T> content, int size, String nextCursor, boolean hasNext) {
+
+}
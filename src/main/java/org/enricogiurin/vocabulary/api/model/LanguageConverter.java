@@ -31,6 +31,9 @@ public class LanguageConverter extends
 
   @Override
   public org.enricogiurin.vocabulary.api.jooq.vocabulary.enums.Language to(Language language) {
+    if (language == null) {
+      return null;
+    }
     return org.enricogiurin.vocabulary.api.jooq.vocabulary.enums.Language.valueOf(
         language.getLanguage());
   }
@@ -0,0 +1,38 @@
+package org.enricogiurin.vocabulary.api.model;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.UUID;
+import lombok.Builder;
+
+/**
+ * A user of the Keycloak realm, as listed to the administrators.
+ *
+ * @param keycloakId the id of the user in Keycloak
+ * @param uuid       the id of the user in this application, null if the user is not registered in
+ *                   the database
+ */
+@Builder
+public record RealmUser(String keycloakId, String username, String email, String firstName,
+                        String lastName, boolean enabled, boolean emailVerified,
+                        Long createdTimestamp, UUID uuid) {
+
+}
@@ -0,0 +1,44 @@
+package org.enricogiurin.vocabulary.api.model;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+import org.springframework.data.domain.Slice;
+
+/**
+ * A page of results without totals, the JSON representation of a {@link Slice}. It mirrors the
+ * shape of {@link org.springframework.data.web.PagedModel}, whose page metadata has the totals in
+ * place of {@code hasNext}.
+ *
+ * @param content the items of this page
+ * @param page    the size and the number of this page, and whether another one follows
+ */
+public record SlicedModel<T>(List<T> content, SliceMetadata page) {
+
+  public SlicedModel(Slice<T> slice) {
+    this(slice.getContent(),
+        new SliceMetadata(slice.getSize(), slice.getNumber(), slice.hasNext()));
+  }
+
+  public record SliceMetadata(int size, int number, boolean hasNext) {
+
+  }
+}
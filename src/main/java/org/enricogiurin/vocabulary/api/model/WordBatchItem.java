@@ -0,0 +1,34 @@
+package org.enricogiurin.vocabulary.api.model;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+
+/**
+ * The outcome of one item of a batch of words.
+ *
+ * @param index  the position of the item in the request
+ * @param word   the created word, null when the item has been rejected
+ * @param errors the validation errors of the rejected item, empty when the word has been created
+ */
+public record WordBatchItem(int index, Word word, List<String> errors) {
+
+}
@@ -0,0 +1,46 @@
+package org.enricogiurin.vocabulary.api.model;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The file formats supported to import and export words.
+ */
+@RequiredArgsConstructor
+@Getter
+public enum WordFormat {
+  /**
+   * One JSON word per line.
+   */
+  NDJSON(WordFormat.NDJSON_VALUE, "ndjson"),
+  /**
+   * Comma separated values, with a header row naming the word fields.
+   */
+  CSV(WordFormat.CSV_VALUE, "csv");
+
+  public static final String NDJSON_VALUE = "application/x-ndjson";
+  public static final String CSV_VALUE = "text/csv";
+
+  private final String mediaType;
+  private final String extension;
+}
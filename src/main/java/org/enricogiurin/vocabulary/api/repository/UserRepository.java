@@ -24,8 +24,12 @@ package org.enricogiurin.vocabulary.api.repository;
 import static org.enricogiurin.vocabulary.api.jooq.vocabulary.Tables.USER;
 
 import com.yourrents.services.common.util.exception.DataNotFoundException;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.enricogiurin.vocabulary.api.exception.DataExecutionException;
@@ -35,6 +39,8 @@ import org.jooq.DSLContext;
 import org.jooq.Record;
 import org.jooq.Record4;
 import org.jooq.SelectJoinStep;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -52,6 +58,7 @@ public class UserRepository {
   public static final String USERNAME_ALIAS = "username";
   public static final String EMAIL_ALIAS = "email";
   public static final String KEYCLOAK_ID_ALIAS = "keycloakId";
+  public static final String USER_ID_CACHE = "userIdByKeycloakId";
 
   private final DSLContext dsl;
 
@@ -63,6 +70,11 @@ public class UserRepository {
         .map(this::map);
   }
 
+  /**
+   * Resolve the internal id of the user from the keycloak id. Only the users found are cached, the
+   * cache is evicted on {@link #add(User)} and {@link #update(UUID, User)}.
+   */
+  @Cacheable(cacheNames = USER_ID_CACHE, unless = "#result == null")
   public Optional<Integer> findUserIdByKeycloakId(String keycloakId) {
     return dsl.select(USER.ID)
         .from(USER)
@@ -70,6 +82,23 @@ public class UserRepository {
         .fetchOptional(USER.ID);
   }
 
+  /**
+   * Find the users having one of the given keycloak ids, in one query.
+   *
+   * @return the users found by keycloak id
+   */
+  public Map<String, User> findByKeycloakIds(Collection<String> keycloakIds) {
+    if (keycloakIds.isEmpty()) {
+      return Map.of();
+    }
+    return getSelect()
+        .where(USER.KEYCLOAKID.in(keycloakIds))
+        .fetch()
+        .stream()
+        .map(this::map)
+        .collect(Collectors.toMap(User::keycloakId, Function.identity()));
+  }
+
   /**
    * Create a new User.
    *
@@ -77,6 +106,7 @@ public class UserRepository {
    * @throws DataExecutionException if something unexpected happens
    */
   @Transactional(readOnly = false)
+  @CacheEvict(cacheNames = USER_ID_CACHE, key = "#user.keycloakId()")
   public User add(User user) {
     Optional<Integer> optionalUser = findUserIdByKeycloakId(user.keycloakId());
     if (optionalUser.isPresent()) {
@@ -99,6 +129,7 @@ public class UserRepository {
    * @throws DataExecutionException if something unexpected happens
    */
   @Transactional(readOnly = false)
+  @CacheEvict(cacheNames = USER_ID_CACHE, allEntries = true)
   public User update(UUID uuid, User user) {
     UserRecord userRecord = dsl.selectFrom(USER)
         .where(USER.EXTERNAL_ID.eq(uuid))
@@ -23,30 +23,57 @@ package org.enricogiurin.vocabulary.api.repository;
 
 import static org.enricogiurin.vocabulary.api.jooq.vocabulary.Tables.USER;
 import static org.enricogiurin.vocabulary.api.jooq.vocabulary.tables.Word.WORD;
+import static org.jooq.impl.DSL.condition;
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.greatest;
+import static org.jooq.impl.DSL.inline;
+import static org.jooq.impl.DSL.param;
+import static org.jooq.impl.DSL.val;
 
 import com.yourrents.services.common.searchable.Searchable;
 import com.yourrents.services.common.util.exception.DataNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.enricogiurin.vocabulary.api.exception.DataExecutionException;
+import org.enricogiurin.vocabulary.api.jooq.CompiledQueryCache;
 import org.enricogiurin.vocabulary.api.jooq.CustomJooqUtils;
-import org.enricogiurin.vocabulary.api.jooq.vocabulary.tables.records.WordRecord;
+import org.enricogiurin.vocabulary.api.jooq.CustomJooqUtils.CompiledSearch;
+import org.enricogiurin.vocabulary.api.jooq.vocabulary.Routines;
+import org.enricogiurin.vocabulary.api.model.CountMode;
+import org.enricogiurin.vocabulary.api.model.CursorPage;
 import org.enricogiurin.vocabulary.api.model.Language;
+import org.enricogiurin.vocabulary.api.model.LanguageConverter;
 import org.enricogiurin.vocabulary.api.model.Word;
 import org.jooq.DSLContext;
 import org.jooq.Field;
 import org.jooq.Record;
 import org.jooq.Record6;
-import org.jooq.Select;
+import org.jooq.Result;
 import org.jooq.SelectConditionStep;
+import org.jooq.SelectQuery;
 import org.jooq.SelectSelectStep;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -64,8 +91,29 @@ public class WordRepository {
   public static final String DESCRIPTION_ALIAS = "description";
 
 
+  /**
+   * The columns returned by the insert and update statements, aliased as the columns of
+   * {@link #getSelect(Integer)} so that the same {@link #map(Record)} applies.
+   */
+  private static final List<Field<?>> RETURNING_FIELDS = List.of(
+      WORD.EXTERNAL_ID.as(UUID_ALIAS),
+      WORD.SENTENCE.as(SENTENCE_ALIAS),
+      WORD.TRANSLATION.as(TRANSLATION_ALIAS),
+      WORD.DESCRIPTION.as(DESCRIPTION_ALIAS),
+      WORD.LANGUAGE.as(LANGUAGE_ALIAS),
+      WORD.LANGUAGE_TO.as(LANGUAGE_TO_ALIAS));
+
+  private static final String COPY_SQL = "COPY vocabulary.word "
+      + "(language, language_to, sentence, translation, description, user_id) "
+      + "FROM STDIN (FORMAT csv)";
+  private static final LanguageConverter LANGUAGE_CONVERTER = new LanguageConverter();
+  private static final String SIMPLE_REGCONFIG = "pg_catalog.simple";
+  private static final String FIND_QUERY = "word.find";
+  private static final String USER_ID_PARAM = "userId";
+
   private final DSLContext dsl;
   private final CustomJooqUtils jooqUtils;
+  private final CompiledQueryCache compiledQueries;
 
   public Optional<Word> findByExternalId(UUID externalId, Integer userId) {
     return getSelect(userId)
@@ -74,6 +122,17 @@ public class WordRepository {
         .map(this::map);
   }
 
+  /**
+   * Find a word of the user identified by {@code keycloakId}, the user is resolved in the same
+   * statement.
+   */
+  public Optional<Word> findByExternalId(UUID externalId, String keycloakId) {
+    return getSelect(keycloakId)
+        .and(WORD.EXTERNAL_ID.eq(externalId))
+        .fetchOptional()
+        .map(this::map);
+  }
+
   public Optional<Word> findById(Integer wordId, Integer userId) {
     return getSelect(userId)
         .and(WORD.ID.eq(wordId))
@@ -82,21 +141,143 @@ public class WordRepository {
   }
 
   public Page<Word> find(Searchable filter, Pageable pageable, Integer userId) {
-    Select<?> result = jooqUtils.paginate(
-        dsl,
-        jooqUtils.getQueryWithConditionsAndSorts(getSelect(userId),
-            filter, this::getSupportedField,
-            pageable, this::getSupportedField),
-        pageable.getPageSize(), pageable.getOffset());
+    CompiledSearch search = jooqUtils.compileSearch(filter, this::getSupportedField,
+        pageable.getSort(), this::getSupportedField);
+    Map<String, Object> values = new HashMap<>(search.values());
+    values.put(USER_ID_PARAM, userId);
+    values.put(CustomJooqUtils.LIMIT_PARAM, pageable.getPageSize());
+    values.put(CustomJooqUtils.OFFSET_PARAM, pageable.getOffset());
+    Result<Record> records = compiledQueries.query(FIND_QUERY, search.shape(),
+        () -> jooqUtils.paginate(
+            dsl,
+            jooqUtils.getTemplateWithConditionsAndSorts(
+                getSelect(param(USER_ID_PARAM, WORD.USER_ID)),
+                search.shape(), this::getSupportedField, this::getSupportedField),
+            param(CustomJooqUtils.LIMIT_PARAM, Integer.class),
+            param(CustomJooqUtils.OFFSET_PARAM, Long.class)),
+        values).fetch();
 
-    List<Word> words = result.fetch(record -> {
-      return map(record);
-    });
-    int totalRows = Objects.requireNonNullElse(
-        result.fetchAny("total_rows", Integer.class), 0);
+    List<Word> words = records.map(this::map);
+    int totalRows = records.isEmpty()
+        ? 0
+        : Objects.requireNonNullElse(records.get(0).get("total_rows", Integer.class), 0);
     return new PageImpl<>(words, pageable, totalRows);
   }
 
+  /**
+   * Find words computing the total number of rows as requested by {@code countMode}.
+   *
+   * @return a {@link Page} for {@link CountMode#EXACT} and {@link CountMode#ESTIMATED}, a plain
+   * {@link Slice} for {@link CountMode#NONE}
+   */
+  public Slice<Word> find(Searchable filter, Pageable pageable, CountMode countMode,
+      Integer userId) {
+    return switch (countMode) {
+      case EXACT -> find(filter, pageable, userId);
+      case ESTIMATED -> findWithEstimatedCount(filter, pageable, userId);
+      case NONE -> findWithoutCount(filter, pageable, userId);
+    };
+  }
+
+  private Page<Word> findWithEstimatedCount(Searchable filter, Pageable pageable,
+      Integer userId) {
+    SelectQuery<?> query = jooqUtils.getQueryWithConditionsAndSorts(getSelect(userId),
+        filter, this::getSupportedField,
+        pageable, this::getSupportedField);
+    long estimatedRows = Math.round(dsl.explain(query).rows());
+    query.addLimit(pageable.getOffset(), pageable.getPageSize());
+    List<Word> words = query.fetch(this::map);
+    long fetchedRows = pageable.getOffset() + words.size();
+    long totalRows = words.size() < pageable.getPageSize()
+        ? fetchedRows
+        : Math.max(estimatedRows, fetchedRows);
+    return new PageImpl<>(words, pageable, totalRows);
+  }
+
+  private Slice<Word> findWithoutCount(Searchable filter, Pageable pageable, Integer userId) {
+    SelectQuery<?> query = jooqUtils.getQueryWithConditionsAndSorts(getSelect(userId),
+        filter, this::getSupportedField,
+        pageable, this::getSupportedField);
+    int size = pageable.getPageSize();
+    query.addLimit(pageable.getOffset(), size + 1L);
+    List<Word> words = query.fetch(this::map);
+    boolean hasNext = words.size() > size;
+    return new SliceImpl<>(hasNext ? words.subList(0, size) : words, pageable, hasNext);
+  }
+
+  /**
+   * Full-text search over sentence, translation and description, best matches first.
+   * <p>
+   * The query accepts the web search syntax (quoted phrases, {@code or}, {@code -}) and it is
+   * matched with the text search configurations of all the languages, since the language of the
+   * query is not known. The sort of {@code pageable} is ignored.
+   */
+  public Slice<Word> search(String query, Pageable pageable, Integer userId) {
+    Field<Object> tsQuery = websearchToTsQuery(query);
+    int size = pageable.getPageSize();
+    List<Word> words = getSelect(userId)
+        .and(condition("{0} @@ {1}", WORD.SEARCH_VECTOR, tsQuery))
+        .orderBy(field("ts_rank({0}, {1})", Float.class, WORD.SEARCH_VECTOR, tsQuery).desc(),
+            WORD.SENTENCE, WORD.EXTERNAL_ID)
+        .offset(pageable.getOffset())
+        .limit(size + 1)
+        .fetch(this::map);
+    boolean hasNext = words.size() > size;
+    return new SliceImpl<>(hasNext ? words.subList(0, size) : words, pageable, hasNext);
+  }
+
+  /**
+   * Typo tolerant lookup: the words whose sentence or translation is similar to {@code query},
+   * the most similar first.
+   * <p>
+   * The similarity is the pg_trgm one, a word matches when it is above
+   * {@code pg_trgm.similarity_threshold} (0.3 by default); the trigram indexes of sentence and
+   * translation serve the {@code %} operator.
+   *
+   * @param limit the max number of words returned
+   */
+  public List<Word> findSimilar(String query, int limit, Integer userId) {
+    return getSelect(userId)
+        .and(condition("{0} % {1}", WORD.SENTENCE, val(query))
+            .or(condition("{0} % {1}", WORD.TRANSLATION, val(query))))
+        .orderBy(greatest(
+                field("similarity({0}, {1})", Float.class, WORD.SENTENCE, val(query)),
+                field("similarity({0}, {1})", Float.class, WORD.TRANSLATION, val(query)))
+                .desc(),
+            WORD.SENTENCE, WORD.EXTERNAL_ID)
+        .limit(limit)
+        .fetch(this::map);
+  }
+
+  /**
+   * Find words with keyset pagination.
+   * <p>
+   * Only the size and the sort of {@code pageable} are used: the page number is replaced by the
+   * cursor. The word uuid is always appended to the sort to make it unique.
+   *
+   * @param cursor the {@link CursorPage#nextCursor()} of the previous window, null or blank to
+   *               start from the first one
+   * @throws org.enricogiurin.vocabulary.api.exception.BadRequestException if the cursor does not
+   *                                                                        match the sort
+   */
+  public CursorPage<Word> findAfter(Searchable filter, Pageable pageable, String cursor,
+      Integer userId) {
+    Sort sort = jooqUtils.getSeekSort(pageable.getSort(), this::getSupportedField, UUID_ALIAS);
+    int size = pageable.getPageSize();
+    Result<?> records = jooqUtils.getQueryWithConditionsAndSeek(getSelect(userId),
+            filter, this::getSupportedField,
+            sort, this::getSupportedField,
+            cursor, size + 1L)
+        .fetch();
+    boolean hasNext = records.size() > size;
+    List<? extends Record> window = hasNext ? records.subList(0, size) : records;
+    String nextCursor = hasNext ? jooqUtils.encodeCursor(window.getLast(), sort) : null;
+    List<Word> words = window.stream()
+        .map(this::map)
+        .toList();
+    return new CursorPage<>(words, size, nextCursor, hasNext);
+  }
+
   /**
    * Create a new Word.
    *
@@ -105,16 +286,81 @@ public class WordRepository {
    */
   @Transactional(readOnly = false)
   public Word create(Word word, Integer userId) {
-    WordRecord wordRecord = dsl.newRecord(WORD);
-    wordRecord.setLanguage(word.language());
-    wordRecord.setLanguageTo(word.languageTo());
-    wordRecord.setSentence(word.sentence());
-    wordRecord.setTranslation(word.translation());
-    wordRecord.setDescription(word.description());
-    wordRecord.setUserId(userId);
-    wordRecord.insert();
-    return findById(wordRecord.getId(), userId).orElseThrow(
-        () -> new DataExecutionException("failed to create word[sentence]: " + word.sentence()));
+    return dsl.insertInto(WORD)
+        .set(WORD.LANGUAGE, word.language())
+        .set(WORD.LANGUAGE_TO, word.languageTo())
+        .set(WORD.SENTENCE, word.sentence())
+        .set(WORD.TRANSLATION, word.translation())
+        .set(WORD.DESCRIPTION, word.description())
+        .set(WORD.USER_ID, userId)
+        .returningResult(RETURNING_FIELDS)
+        .fetchOptional()
+        .map(this::map)
+        .orElseThrow(() -> new DataExecutionException(
+            "failed to create word[sentence]: " + word.sentence()));
+  }
+
+  /**
+   * Create several words of the same user with a single multi-row insert. PostgreSQL doesn't
+   * guarantee the order of the returned rows: the uuid of every word is generated here and the
+   * returned rows are matched on it.
+   *
+   * @return the created words, in the same order of {@code words}
+   */
+  @Transactional(readOnly = false)
+  public List<Word> createAll(List<Word> words, Integer userId) {
+    if (words.isEmpty()) {
+      return List.of();
+    }
+    List<UUID> uuids = words.stream()
+        .map(word -> UUID.randomUUID())
+        .toList();
+    var insert = dsl.insertInto(WORD,
+        WORD.EXTERNAL_ID, WORD.LANGUAGE, WORD.LANGUAGE_TO, WORD.SENTENCE, WORD.TRANSLATION,
+        WORD.DESCRIPTION, WORD.USER_ID);
+    for (int i = 0; i < words.size(); i++) {
+      Word word = words.get(i);
+      insert = insert.values(uuids.get(i), word.language(), word.languageTo(), word.sentence(),
+          word.translation(), word.description(), userId);
+    }
+    Map<UUID, Word> created = insert.returningResult(RETURNING_FIELDS)
+        .fetch(this::map)
+        .stream()
+        .collect(Collectors.toMap(Word::uuid, Function.identity()));
+    return uuids.stream()
+        .map(uuid -> Optional.ofNullable(created.get(uuid)).orElseThrow(
+            () -> new DataExecutionException("failed to create word[uuid]: " + uuid)))
+        .toList();
+  }
+
+  /**
+   * Bulk load words of a user with the Postgres COPY command. The rows are sent to the database in
+   * chunks of {@code chunkSize} while {@code words} is consumed, so the memory used does not depend
+   * on the number of words.
+   *
+   * @return the number of words created
+   */
+  @Transactional(readOnly = false)
+  public long copyIn(Stream<Word> words, Integer userId, int chunkSize) {
+    return dsl.connectionResult(connection -> {
+      CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+      try {
+        StringBuilder chunk = new StringBuilder();
+        int rows = 0;
+        for (Iterator<Word> iterator = words.iterator(); iterator.hasNext(); ) {
+          appendCopyRow(chunk, iterator.next(), userId);
+          if (++rows % chunkSize == 0) {
+            writeToCopy(copyIn, chunk);
+          }
+        }
+        writeToCopy(copyIn, chunk);
+        return copyIn.endCopy();
+      } finally {
+        if (copyIn.isActive()) {
+          copyIn.cancelCopy();
+        }
+      }
+    });
   }
 
   /**
@@ -133,29 +379,34 @@ public class WordRepository {
    */
   @Transactional(readOnly = false)
   public Word update(UUID uuid, Word word, Integer userId) {
-    WordRecord wordRecord = dsl.selectFrom(WORD)
-        .where(WORD.EXTERNAL_ID.eq(uuid))
-        .and(WORD.USER_ID.eq(userId))
-        .fetchOptional()
-        .orElseThrow(() -> new DataNotFoundException("Word not found: " + uuid));
+    Map<Field<?>, Object> values = new LinkedHashMap<>();
     if (word.language() != null) {
-      wordRecord.setLanguage(word.language());
+      values.put(WORD.LANGUAGE, word.language());
     }
     if (word.languageTo() != null) {
-      wordRecord.setLanguageTo(word.languageTo());
+      values.put(WORD.LANGUAGE_TO, word.languageTo());
     }
     if (word.sentence() != null) {
-      wordRecord.setSentence(word.sentence());
+      values.put(WORD.SENTENCE, word.sentence());
     }
     if (word.translation() != null) {
-      wordRecord.setTranslation(word.translation());
+      values.put(WORD.TRANSLATION, word.translation());
     }
     if (word.description() != null) {
-      wordRecord.setDescription(word.description());
+      values.put(WORD.DESCRIPTION, word.description());
+    }
+    if (values.isEmpty()) {
+      return findByExternalId(uuid, userId).orElseThrow(
+          () -> new DataNotFoundException("Word not found: " + uuid));
     }
-    wordRecord.update();
-    return findById(wordRecord.getId(), userId).orElseThrow(
-        () -> new DataExecutionException("failed to update word: " + uuid));
+    return dsl.update(WORD)
+        .set(values)
+        .where(WORD.EXTERNAL_ID.eq(uuid))
+        .and(WORD.USER_ID.eq(userId))
+        .returningResult(RETURNING_FIELDS)
+        .fetchOptional()
+        .map(this::map)
+        .orElseThrow(() -> new DataNotFoundException("Word not found: " + uuid));
   }
 
   /**
@@ -166,24 +417,36 @@ public class WordRepository {
    */
   @Transactional(readOnly = false)
   public boolean delete(UUID uuid, Integer userId) {
-    Integer propertyId = dsl.select(WORD.ID)
-        .from(WORD)
+    return dsl.deleteFrom(WORD)
         .where(WORD.EXTERNAL_ID.eq(uuid))
         .and(WORD.USER_ID.eq(userId))
-        .fetchOptional(WORD.ID).orElseThrow(
-            () -> new DataNotFoundException("Word not found: " + uuid));
-    return dsl.deleteFrom(WORD)
-        .where(WORD.ID.eq(propertyId))
-        .execute() > 0;
+        .returningResult(WORD.ID)
+        .fetchOptional()
+        .map(record -> true)
+        .orElseThrow(() -> new DataNotFoundException("Word not found: " + uuid));
   }
 
 
-  private SelectConditionStep<Record6<UUID, String, String, String, Language, Language>> getSelect(
+  SelectConditionStep<Record6<UUID, String, String, String, Language, Language>> getSelect(
       Integer userId) {
+    return getSelect(val(userId, WORD.USER_ID));
+  }
+
+  private SelectConditionStep<Record6<UUID, String, String, String, Language, Language>> getSelect(
+      Field<Integer> userId) {
+    return select()
+        .from(WORD)
+        .where(WORD.USER_ID.eq(userId));
+  }
+
+  private SelectConditionStep<Record6<UUID, String, String, String, Language, Language>> getSelect(
+      String keycloakId) {
     return select()
         .from(WORD)
-        .join(USER).on(WORD.USER_ID.eq(USER.ID))
-        .where(USER.ID.eq(userId));
+        .where(WORD.USER_ID.eq(
+            dsl.select(USER.ID)
+                .from(USER)
+                .where(USER.KEYCLOAKID.eq(keycloakId))));
   }
 
 
@@ -198,6 +461,49 @@ public class WordRepository {
     );
   }
 
+  /**
+   * The union of the query parsed with the configuration of every language, plus the simple one
+   * used by the description. All the arguments are constants, so the GIN index of the search
+   * vector can be used.
+   */
+  private static Field<Object> websearchToTsQuery(String query) {
+    return Stream.concat(
+            Arrays.stream(org.enricogiurin.vocabulary.api.jooq.vocabulary.enums.Language.values())
+                .map(Routines::languageRegconfig),
+            Stream.of(field("{0}::regconfig", Object.class, inline(SIMPLE_REGCONFIG))))
+        .map(config -> field("websearch_to_tsquery({0}, {1})", Object.class, config, val(query)))
+        .reduce((left, right) -> field("({0} || {1})", Object.class, left, right))
+        .orElseThrow();
+  }
+
+  private static void appendCopyRow(StringBuilder chunk, Word word, Integer userId) {
+    chunk.append(copyValue(LANGUAGE_CONVERTER.to(word.language()).getLiteral()))
+        .append(',')
+        .append(copyValue(LANGUAGE_CONVERTER.to(word.languageTo()).getLiteral()))
+        .append(',')
+        .append(copyValue(word.sentence()))
+        .append(',')
+        .append(copyValue(word.translation()))
+        .append(',')
+        .append(copyValue(word.description()))
+        .append(',')
+        .append(userId)
+        .append('\n');
+  }
+
+  /**
+   * Quote a value for the csv format of COPY, where an unquoted empty value is null.
+   */
+  private static String copyValue(String value) {
+    return value == null ? "" : '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  private static void writeToCopy(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+    byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+    copyIn.writeToCopy(bytes, 0, bytes.length);
+    chunk.setLength(0);
+  }
+
   private Field<?> getSupportedField(String field) {
     return switch (field) {
       case UUID_ALIAS -> WORD.EXTERNAL_ID;
@@ -211,7 +517,7 @@ public class WordRepository {
     };
   }
 
-  private Word map(Record record) {
+  Word map(Record record) {
     return new Word(
         record.get(UUID_ALIAS, UUID.class),
         record.get(SENTENCE_ALIAS, String.class),
@@ -0,0 +1,63 @@
+package org.enricogiurin.vocabulary.api.rest;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enforces a per-endpoint page size budget, stricter than the global max page size configured in
+ * {@link org.enricogiurin.vocabulary.api.conf.PageableConfig}.
+ * <p>
+ * Every clamped request is counted by the {@value #CLAMPED_METRIC} metric, tagged with the
+ * endpoint.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PageSizeBudget {
+
+  public static final String CLAMPED_METRIC = "vocabulary.pageable.clamped";
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * @return {@code pageable} itself if within the budget, otherwise the same page and sort with
+   * the page size reduced to {@code maxPageSize}
+   */
+  public Pageable clamp(Pageable pageable, int maxPageSize, String endpoint) {
+    if (pageable.isUnpaged() || pageable.getPageSize() <= maxPageSize) {
+      return pageable;
+    }
+    log.debug("page size {} of {} clamped to {}", pageable.getPageSize(), endpoint, maxPageSize);
+    Counter.builder(CLAMPED_METRIC)
+        .description("Requests whose page size exceeded the budget of the endpoint")
+        .tag("endpoint", endpoint)
+        .register(meterRegistry)
+        .increment();
+    return PageRequest.of(pageable.getPageNumber(), maxPageSize, pageable.getSort());
+  }
+}
@@ -20,13 +20,22 @@ package org.enricogiurin.vocabulary.api.rest.admin;
  * #L%
  */
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.enricogiurin.vocabulary.api.exception.BadRequestException;
+import org.enricogiurin.vocabulary.api.model.RealmUser;
 import org.enricogiurin.vocabulary.api.service.KeycloakClientService;
-import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -34,12 +43,51 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class KeycloakUserController {
 
+  public static final String FIRST_PARAM = "first";
+  public static final String MAX_PARAM = "max";
+  public static final int MAX_PAGE_SIZE = 500;
+
+  static final int STREAM_PAGE_SIZE = 200;
+
   private final KeycloakClientService keycloakAdminService;
+  private final ObjectMapper objectMapper;
 
+  /**
+   * A page of the users of the realm, at most {@value #MAX_PAGE_SIZE}.
+   */
   @GetMapping()
-  public ResponseEntity<List<UserRepresentation>> list() {
-    List<UserRepresentation> list = keycloakAdminService.userList();
+  public ResponseEntity<List<RealmUser>> list(
+      @RequestParam(name = FIRST_PARAM, defaultValue = "0") int first,
+      @RequestParam(name = MAX_PARAM, defaultValue = "100") int max) {
+    if (first < 0 || max < 1 || max > MAX_PAGE_SIZE) {
+      throw new BadRequestException("Invalid page: " + FIRST_PARAM + " must be non-negative and "
+          + MAX_PARAM + " between 1 and " + MAX_PAGE_SIZE);
+    }
+    List<RealmUser> list = keycloakAdminService.userList(first, max);
     return ResponseEntity.ok(list);
   }
 
+  /**
+   * All the users of the realm, one JSON user per line. The users are written to the response
+   * while they are listed from Keycloak, {@value #STREAM_PAGE_SIZE} at a time.
+   */
+  @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public void stream(HttpServletResponse response) throws IOException {
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    try (SequenceWriter writer = objectMapper.writerFor(RealmUser.class)
+        .withRootValueSeparator("\n")
+        .writeValues(response.getOutputStream())) {
+      keycloakAdminService.forEachUser(STREAM_PAGE_SIZE, user -> {
+        try {
+          writer.write(user);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
 }
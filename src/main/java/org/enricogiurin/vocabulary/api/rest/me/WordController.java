@@ -23,18 +23,35 @@ package org.enricogiurin.vocabulary.api.rest.me;
 
 import com.yourrents.services.common.searchable.Searchable;
 import com.yourrents.services.common.util.exception.DataNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.enricogiurin.vocabulary.api.conf.WordProperties;
+import org.enricogiurin.vocabulary.api.model.CountMode;
+import org.enricogiurin.vocabulary.api.model.CursorPage;
+import org.enricogiurin.vocabulary.api.model.SlicedModel;
 import org.enricogiurin.vocabulary.api.model.Word;
+import org.enricogiurin.vocabulary.api.model.WordBatchItem;
+import org.enricogiurin.vocabulary.api.model.WordFormat;
+import org.enricogiurin.vocabulary.api.model.WordImportResult;
 import org.enricogiurin.vocabulary.api.repository.WordRepository;
+import org.enricogiurin.vocabulary.api.rest.PageSizeBudget;
 import org.enricogiurin.vocabulary.api.security.PrincipalAccessor;
 import org.enricogiurin.vocabulary.api.service.WordService;
 import org.enricogiurin.vocabulary.api.validation.ValidationGroups;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.web.PagedModel;
 import org.springframework.data.web.SortDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -45,6 +62,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -53,22 +71,96 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class WordController {
 
+  static final String CURSOR_PARAM = "cursor";
+  static final String COUNT_PARAM = "count";
+  static final String FORMAT_PARAM = "format";
+  static final String QUERY_PARAM = "q";
+  static final String LIMIT_PARAM = "limit";
+
   private final WordService wordService;
   private final PrincipalAccessor principalAccessor;
+  private final PageSizeBudget pageSizeBudget;
+  private final WordProperties wordProperties;
 
+  /**
+   * The {@value #COUNT_PARAM} parameter selects how the total is computed: with
+   * {@link CountMode#NONE} the response is a {@link SlicedModel} without totals, telling only
+   * whether a next page exists, otherwise a {@link PagedModel}.
+   */
   @GetMapping
-  ResponseEntity<Page<Word>> find(
+  ResponseEntity<?> find(
+      @ParameterObject Searchable filter,
+      @RequestParam(name = COUNT_PARAM, required = false) CountMode countMode,
+      @ParameterObject @SortDefault(sort = WordRepository.SENTENCE_ALIAS, direction = Direction.ASC) Pageable pagination) {
+    Integer userId = principalAccessor.getUserId();
+    Slice<Word> page = wordService.find(filter, clamp(pagination, "find"), countMode, userId);
+    return ResponseEntity.ok(page instanceof Page<Word> counted
+        ? new PagedModel<>(counted)
+        : new SlicedModel<>(page));
+  }
+
+  /**
+   * Keyset pagination mode, selected by the presence of the {@value #CURSOR_PARAM} parameter:
+   * pass it empty to get the first window, then the {@code nextCursor} of the previous response.
+   * The page number is ignored.
+   */
+  @GetMapping(params = CURSOR_PARAM)
+  ResponseEntity<CursorPage<Word>> findAfter(
       @ParameterObject Searchable filter,
+      @RequestParam(CURSOR_PARAM) String cursor,
       @ParameterObject @SortDefault(sort = WordRepository.SENTENCE_ALIAS, direction = Direction.ASC) Pageable pagination) {
-    String keycloakId = getKeycloakId();
-    Page<Word> page = wordService.find(filter, pagination, keycloakId);
+    Integer userId = principalAccessor.getUserId();
+    CursorPage<Word> page = wordService.findAfter(filter, clamp(pagination, "findAfter"), cursor,
+        userId);
     return ResponseEntity.ok(page);
   }
 
+  /**
+   * Download all the words of the user. The words are written to the response while they are read
+   * from the database, so the export is not paginated.
+   */
+  @GetMapping("/export")
+  void export(@RequestParam(name = FORMAT_PARAM, defaultValue = "NDJSON") WordFormat format,
+      HttpServletResponse response) throws IOException {
+    Integer userId = principalAccessor.getUserId();
+    response.setContentType(format.getMediaType());
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+        .filename("words." + format.getExtension())
+        .build()
+        .toString());
+    wordService.exportWords(response.getOutputStream(), format, userId);
+  }
+
+  /**
+   * Full-text search over sentence, translation and description, the best matches first. The
+   * {@value #QUERY_PARAM} parameter accepts quoted phrases, {@code or} and {@code -} to exclude a
+   * word.
+   */
+  @GetMapping("/search")
+  ResponseEntity<SlicedModel<Word>> search(@RequestParam(QUERY_PARAM) String query,
+      @ParameterObject Pageable pagination) {
+    Integer userId = principalAccessor.getUserId();
+    Slice<Word> page = wordService.search(query, clamp(pagination, "search"), userId);
+    return ResponseEntity.ok(new SlicedModel<>(page));
+  }
+
+  /**
+   * "Did you mean" lookup: the words whose sentence or translation is similar to the
+   * {@value #QUERY_PARAM} parameter, the most similar first.
+   */
+  @GetMapping("/fuzzy")
+  ResponseEntity<List<Word>> findSimilar(@RequestParam(QUERY_PARAM) String query,
+      @RequestParam(name = LIMIT_PARAM, defaultValue = "10") int limit) {
+    Integer userId = principalAccessor.getUserId();
+    List<Word> words = wordService.findSimilar(query, limit, userId);
+    return ResponseEntity.ok(words);
+  }
+
   @GetMapping("/{uuid}")
   ResponseEntity<Word> findByUuid(@PathVariable UUID uuid) {
-    String keycloakId = getKeycloakId();
-    Word result = wordService.findByExternalId(uuid, keycloakId)
+    Integer userId = principalAccessor.getUserId();
+    Word result = wordService.findByExternalId(uuid, userId)
         .orElseThrow(
             () -> new DataNotFoundException("can't find Word having uuid: " + uuid));
     return ResponseEntity.ok(result);
@@ -76,27 +168,62 @@ public class WordController {
 
   @PostMapping
   ResponseEntity<Word> add( @Validated(ValidationGroups.Post.class) @RequestBody Word word) {
-    String keycloakId = getKeycloakId();
-    Word savedProperty = wordService.createNewWord(word, keycloakId);
+    Integer userId = principalAccessor.getUserId();
+    Word savedProperty = wordService.createNewWord(word, userId);
     return new ResponseEntity<>(savedProperty, HttpStatus.CREATED);
   }
 
+  /**
+   * Create up to {@code application.words.batch-max-size} words in one request. Each word is
+   * validated on its own and the response reports, per word, either the created word or its
+   * errors.
+   */
+  @PostMapping("/batch")
+  ResponseEntity<List<WordBatchItem>> addAll(@RequestBody List<Word> words) {
+    Integer userId = principalAccessor.getUserId();
+    List<WordBatchItem> result = wordService.createNewWords(words, userId);
+    return new ResponseEntity<>(result, HttpStatus.CREATED);
+  }
+
+  /**
+   * Import a file of words, one JSON word per line. The body is read while importing, so there is
+   * no limit on the number of words.
+   */
+  @PostMapping(path = "/import", consumes = WordFormat.NDJSON_VALUE)
+  ResponseEntity<WordImportResult> importNdjson(InputStream body) {
+    return importWords(body, WordFormat.NDJSON);
+  }
+
+  /**
+   * Import a csv file of words, the header row names the word fields.
+   */
+  @PostMapping(path = "/import", consumes = WordFormat.CSV_VALUE)
+  ResponseEntity<WordImportResult> importCsv(InputStream body) {
+    return importWords(body, WordFormat.CSV);
+  }
+
   @PatchMapping("/{uuid}")
   ResponseEntity<Word> update(@PathVariable UUID uuid,   @Validated(ValidationGroups.Patch.class) @RequestBody Word wordToUpdate) {
-    String keycloakId = getKeycloakId();
-    Word updatedProperty = wordService.updateAnExistingWord(uuid, wordToUpdate, keycloakId);
+    Integer userId = principalAccessor.getUserId();
+    Word updatedProperty = wordService.updateAnExistingWord(uuid, wordToUpdate, userId);
     return ResponseEntity.ok(updatedProperty);
   }
 
   @DeleteMapping("/{uuid}")
   @ResponseStatus(HttpStatus.NO_CONTENT)
   void delete(@PathVariable UUID uuid) {
-    String keycloakId = getKeycloakId();
-    wordService.deleteAnExistingWord(uuid, keycloakId);
+    Integer userId = principalAccessor.getUserId();
+    wordService.deleteAnExistingWord(uuid, userId);
+  }
+
+  private ResponseEntity<WordImportResult> importWords(InputStream body, WordFormat format) {
+    Integer userId = principalAccessor.getUserId();
+    WordImportResult result = wordService.importWords(body, format, userId);
+    return new ResponseEntity<>(result, HttpStatus.CREATED);
   }
 
-  private String getKeycloakId() {
-    return principalAccessor.getSubject();
+  private Pageable clamp(Pageable pagination, String endpoint) {
+    return pageSizeBudget.clamp(pagination, wordProperties.getMaxPageSize(), endpoint);
   }
 
 }
@@ -0,0 +1,137 @@
+package org.enricogiurin.vocabulary.api.security;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+/**
+ * Cache of the authenticated bearer tokens. The SPA sends the same access token on every call
+ * until it expires: the signature of a token is verified and its authorities are extracted once,
+ * the following requests with the same token get the cached authentication.
+ * <p>
+ * The tokens are keyed by their SHA-256 and evicted when they expire. A token rejected by the
+ * delegate is not cached. The hit/miss metrics are exposed as {@value #CACHE_NAME}.
+ */
+class CachingJwtAuthenticationManager implements AuthenticationManager {
+
+  static final String CACHE_NAME = "security.authenticatedTokens";
+
+  private final AuthenticationManager delegate;
+  private final Clock clock;
+  private final Cache<String, JwtAuthenticationToken> cache;
+
+  CachingJwtAuthenticationManager(AuthenticationManager delegate, long maximumSize,
+      MeterRegistry meterRegistry) {
+    this(delegate, maximumSize, meterRegistry, Clock.systemUTC());
+  }
+
+  CachingJwtAuthenticationManager(AuthenticationManager delegate, long maximumSize,
+      MeterRegistry meterRegistry, Clock clock) {
+    this.delegate = delegate;
+    this.clock = clock;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new ExpiresWithToken())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication)
+      throws AuthenticationException {
+    if (!(authentication instanceof BearerTokenAuthenticationToken bearer)) {
+      return delegate.authenticate(authentication);
+    }
+    String key = sha256(bearer.getToken());
+    JwtAuthenticationToken cached = cache.getIfPresent(key);
+    if (cached != null && !isExpired(cached.getToken())) {
+      // the details are the ones of the current request
+      JwtAuthenticationToken result = copyOf(cached);
+      result.setDetails(bearer.getDetails());
+      return result;
+    }
+    Authentication result = delegate.authenticate(bearer);
+    if (result instanceof JwtAuthenticationToken token && token.getToken().getExpiresAt() != null) {
+      cache.put(key, token);
+    }
+    return result;
+  }
+
+  private static JwtAuthenticationToken copyOf(JwtAuthenticationToken token) {
+    if (token instanceof UserJwtAuthenticationToken userToken) {
+      return new UserJwtAuthenticationToken(userToken.getToken(), userToken.getAuthorities(),
+          userToken.getName(), userToken.getUserId());
+    }
+    return new JwtAuthenticationToken(token.getToken(), token.getAuthorities(), token.getName());
+  }
+
+  private boolean isExpired(Jwt jwt) {
+    // the cache evicts the tokens lazily, an expired one may still be there
+    return !clock.instant().isBefore(jwt.getExpiresAt());
+  }
+
+  private static String sha256(String token) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private class ExpiresWithToken implements Expiry<String, JwtAuthenticationToken> {
+
+    @Override
+    public long expireAfterCreate(String key, JwtAuthenticationToken value, long currentTime) {
+      Duration ttl = Duration.between(clock.instant(), value.getToken().getExpiresAt());
+      return ttl.isNegative() ? 0 : ttl.toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, JwtAuthenticationToken value, long currentTime,
+        long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, JwtAuthenticationToken value, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
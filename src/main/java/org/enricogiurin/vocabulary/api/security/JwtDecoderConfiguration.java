@@ -0,0 +1,157 @@
+package org.enricogiurin.vocabulary.api.security;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSetBasedJWKSource;
+import com.nimbusds.jose.jwk.source.JWKSetSource;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.jwk.source.OutageTolerantJWKSetSource;
+import com.nimbusds.jose.jwk.source.RateLimitedJWKSetSource;
+import com.nimbusds.jose.jwk.source.RefreshAheadCachingJWKSetSource;
+import com.nimbusds.jose.jwk.source.RetryingJWKSetSource;
+import com.nimbusds.jose.jwk.source.URLBasedJWKSetSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.events.EventListener;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.enricogiurin.vocabulary.api.conf.JwksProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+/**
+ * Decoder of the access tokens, replacing the one configured by Spring Boot from
+ * {@code spring.security.oauth2.resourceserver.jwt} to control how the keys of Keycloak are
+ * fetched, see {@link JwksProperties}:
+ * <ul>
+ *   <li>the keys are fetched when the application is ready</li>
+ *   <li>they are refreshed in the background shortly before they expire, so no request waits
+ *   for it</li>
+ *   <li>while Keycloak can't be reached the last keys are still used, for a grace period</li>
+ * </ul>
+ * The fetches are timed by the {@value MeteredResourceRetriever#FETCH_METRIC} metric and the
+ * events of the cache (refreshes, outages, ...) counted by the {@value #EVENTS_METRIC} metric.
+ */
+@Configuration
+@Slf4j
+class JwtDecoderConfiguration {
+
+  static final String EVENTS_METRIC = "vocabulary.jwks.events";
+
+  private static final JWKSelector ALL_KEYS = new JWKSelector(new JWKMatcher.Builder().build());
+
+  /**
+   * The chain built by {@link JWKSourceBuilder}, built here to run the refresh ahead on the
+   * {@code applicationTaskExecutor}: the builder gives it an executor of its own. The refresh is
+   * started by the first request within {@code refresh-ahead} of the expiry, which doesn't wait
+   * for it.
+   */
+  @Bean
+  JWKSource<SecurityContext> jwkSource(
+      @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+      JwksProperties properties, MeterRegistry meterRegistry,
+      @Qualifier(APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor taskExecutor)
+      throws MalformedURLException {
+    DefaultResourceRetriever retriever = new DefaultResourceRetriever(
+        (int) properties.getConnectTimeout().toMillis(),
+        (int) properties.getReadTimeout().toMillis(),
+        JWKSourceBuilder.DEFAULT_HTTP_SIZE_LIMIT);
+    JWKSetSource<SecurityContext> source = new URLBasedJWKSetSource<>(
+        URI.create(jwkSetUri).toURL(), new MeteredResourceRetriever(retriever, meterRegistry));
+    source = new RetryingJWKSetSource<>(source, countEvents(meterRegistry));
+    source = new OutageTolerantJWKSetSource<>(source,
+        properties.getOutageGracePeriod().toMillis(), countEvents(meterRegistry));
+    source = new RateLimitedJWKSetSource<>(source,
+        JWKSourceBuilder.DEFAULT_RATE_LIMIT_MIN_INTERVAL, countEvents(meterRegistry));
+    // not scheduled, a scheduled refresh would start a scheduler of its own
+    source = new RefreshAheadCachingJWKSetSource<>(source,
+        properties.getCacheTtl().toMillis(), properties.getRefreshTimeout().toMillis(),
+        properties.getRefreshAhead().toMillis(), false,
+        new ExecutorServiceAdapter(taskExecutor), false,
+        countEvents(meterRegistry));
+    return new JWKSetBasedJWKSource<>(source);
+  }
+
+  @Bean
+  JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource,
+      @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri) {
+    DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+    processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+    // the claims are validated by the Spring validators below, as NimbusJwtDecoder does
+    processor.setJWTClaimsSetVerifier((claims, context) -> {
+    });
+    NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+    decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+    return decoder;
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "application.jwks.prewarm", havingValue = "true",
+      matchIfMissing = true)
+  ApplicationListener<ApplicationReadyEvent> jwksPrewarm(JWKSource<SecurityContext> jwkSource) {
+    return event -> {
+      try {
+        List<JWK> keys = jwkSource.get(ALL_KEYS, null);
+        log.info("prewarmed the JWK set with {} keys", keys.size());
+      } catch (KeySourceException e) {
+        log.warn("Unable to prewarm the JWK set, it will be fetched by the first request", e);
+      }
+    };
+  }
+
+  private static <S> EventListener<S, SecurityContext> countEvents(MeterRegistry meterRegistry) {
+    return event -> {
+      if (event instanceof OutageTolerantJWKSetSource.OutageEvent<?> outage) {
+        log.warn("JWK set not available, using the cached keys for another {} ms",
+            outage.getRemainingTime());
+      }
+      Counter.builder(EVENTS_METRIC)
+          .description("Events of the cache of the JWK set")
+          .tag("event", event.getClass().getSimpleName())
+          .register(meterRegistry)
+          .increment();
+    };
+  }
+}
@@ -21,13 +21,20 @@ package org.enricogiurin.vocabulary.api.security;
  */
 
 
+import lombok.RequiredArgsConstructor;
+import org.enricogiurin.vocabulary.api.exception.DataNotFoundException;
+import org.enricogiurin.vocabulary.api.repository.UserRepository;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 public class JwtPrincipalAccessor implements PrincipalAccessor {
 
+  private final UserRepository userRepository;
+
   @Override
   public String getUsername() {
     return jwt().getClaimAsString("preferred_username");
@@ -43,6 +50,22 @@ public class JwtPrincipalAccessor implements PrincipalAccessor {
     return jwt().getClaimAsString("sub");
   }
 
+  /**
+   * The id carried by the authentication, looked up only if the user was not in the DB when the
+   * token was converted, e.g. registered meanwhile.
+   */
+  @Override
+  public Integer getUserId() {
+    if (getAuthentication() instanceof UserJwtAuthenticationToken token
+        && token.getUserId() != null) {
+      return token.getUserId();
+    }
+    String subject = getSubject();
+    return userRepository.findUserIdByKeycloakId(subject).orElseThrow(
+        () -> new DataNotFoundException(
+            "User with subject: " + subject + " not present in the DB"));
+  }
+
   @Override
   public boolean isValid() {
     return getPrincipal() instanceof Jwt;
@@ -54,7 +77,11 @@ public class JwtPrincipalAccessor implements PrincipalAccessor {
   }
 
   private Object getPrincipal() {
-    return SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    return getAuthentication().getPrincipal();
+  }
+
+  private Authentication getAuthentication() {
+    return SecurityContextHolder.getContext().getAuthentication();
   }
 
 
@@ -20,12 +20,14 @@ package org.enricogiurin.vocabulary.api.security;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import lombok.extern.slf4j.Slf4j;
+import org.enricogiurin.vocabulary.api.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.core.GrantedAuthority;
@@ -34,45 +36,66 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
 
-@Slf4j
+/**
+ * Converts a Keycloak access token to the authentication of the request, the roles of the client
+ * become the authorities and the subject is resolved to the internal id of the user. The users
+ * have only a few combinations of roles: the authority set of a combination is built once and
+ * shared by all the tokens with the same roles.
+ */
 @Component
 class KeycloakJwtTokenConverter implements Converter<Jwt, JwtAuthenticationToken> {
 
   private static final String RESOURCE_ACCESS = "resource_access";
   private static final String ROLES = "roles";
   private static final String ROLE_PREFIX = "ROLE_";
+  // bounds the memory if the tokens have unexpected combinations of roles
+  private static final int MAX_ROLE_COMBINATIONS = 64;
 
   private final String clientId;
+  private final UserRepository userRepository;
+  private final Map<List<?>, Set<GrantedAuthority>> authoritiesByRoles = new ConcurrentHashMap<>();
 
-  KeycloakJwtTokenConverter(@Value("${application.keycloak.client-id}") String clientId) {
+  KeycloakJwtTokenConverter(@Value("${application.keycloak.client-id}") String clientId,
+      UserRepository userRepository) {
     this.clientId = clientId;
+    this.userRepository = userRepository;
   }
 
 
   @Override
   public JwtAuthenticationToken convert(Jwt jwt) {
-    String tokenValue = jwt.getTokenValue();
-    log.debug("token: {}", tokenValue);
     Collection<GrantedAuthority> authorities = extractResourceRoles(jwt);
-    return new JwtAuthenticationToken(jwt, authorities, jwt.getSubject());
+    return new UserJwtAuthenticationToken(jwt, authorities, jwt.getSubject(), resolveUserId(jwt));
+  }
+
+  private Integer resolveUserId(Jwt jwt) {
+    String subject = jwt.getSubject();
+    // not in the DB yet, e.g. an admin never registered: PrincipalAccessor looks it up again
+    return subject != null ? userRepository.findUserIdByKeycloakId(subject).orElse(null) : null;
   }
 
   private Collection<GrantedAuthority> extractResourceRoles(Jwt jwt) {
     Object resourceAccess = jwt.getClaims().get(RESOURCE_ACCESS);
-    Collection<GrantedAuthority> result = Collections.emptySet();
-    if (resourceAccess instanceof Map<?, ?> map) {
-      Object client = map.get(clientId);
-      if (client instanceof Map<?, ?> clientMap) {
-        Object roles = clientMap.get(ROLES);
-        if (roles instanceof List<?> roleList) {
-          result = roleList.stream()
-              .filter(String.class::isInstance)
-              .map(String.class::cast)
-              .map(role -> new SimpleGrantedAuthority(ROLE_PREFIX + role))
-              .collect(Collectors.toSet());
-        }
+    if (resourceAccess instanceof Map<?, ?> map
+        && map.get(clientId) instanceof Map<?, ?> clientMap
+        && clientMap.get(ROLES) instanceof List<?> roleList) {
+      return authorities(roleList);
+    }
+    return Set.of();
+  }
+
+  private Set<GrantedAuthority> authorities(List<?> roles) {
+    Set<GrantedAuthority> authorities = authoritiesByRoles.get(roles);
+    if (authorities == null) {
+      authorities = roles.stream()
+          .filter(String.class::isInstance)
+          .map(role -> new SimpleGrantedAuthority(ROLE_PREFIX + role))
+          .collect(Collectors.toUnmodifiableSet());
+      if (authoritiesByRoles.size() < MAX_ROLE_COMBINATIONS) {
+        // the list of the token may be mutable, the key is a copy
+        authoritiesByRoles.putIfAbsent(new ArrayList<>(roles), authorities);
       }
     }
-    return result;
+    return authorities;
   }
 }
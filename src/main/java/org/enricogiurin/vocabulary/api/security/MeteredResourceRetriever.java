@@ -0,0 +1,65 @@
+package org.enricogiurin.vocabulary.api.security;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.nimbusds.jose.util.Resource;
+import com.nimbusds.jose.util.ResourceRetriever;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.net.URL;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Times the fetches of the JWK set in the {@value #FETCH_METRIC} metric, tagged with the outcome.
+ */
+@Slf4j
+class MeteredResourceRetriever implements ResourceRetriever {
+
+  static final String FETCH_METRIC = "vocabulary.jwks.fetch";
+
+  private final ResourceRetriever delegate;
+  private final MeterRegistry meterRegistry;
+
+  MeteredResourceRetriever(ResourceRetriever delegate, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Resource retrieveResource(URL url) throws IOException {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "failure";
+    try {
+      Resource resource = delegate.retrieveResource(url);
+      outcome = "success";
+      return resource;
+    } catch (IOException e) {
+      log.warn("Unable to fetch the JWK set from {}: {}", url, e.getMessage());
+      throw e;
+    } finally {
+      sample.stop(Timer.builder(FETCH_METRIC)
+          .description("Fetches of the JWK set used to validate the tokens")
+          .tag("outcome", outcome)
+          .register(meterRegistry));
+    }
+  }
+}
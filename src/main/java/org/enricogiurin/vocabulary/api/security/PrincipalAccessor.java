@@ -32,5 +32,12 @@ public interface PrincipalAccessor {
 
     String getSubject();
 
+    /**
+     * @return the internal id of the user, resolved once per token
+     * @throws org.enricogiurin.vocabulary.api.exception.DataNotFoundException if the user is not
+     *                                                                         in the DB
+     */
+    Integer getUserId();
+
     boolean isValid();
 }
@@ -21,17 +21,22 @@ package org.enricogiurin.vocabulary.api.security;
  */
 
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Arrays;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -56,7 +61,9 @@ class SecurityConfiguration {
 
   @Bean
   SecurityFilterChain securityFilterChain(HttpSecurity http,
-      KeycloakJwtTokenConverter keycloakJwtTokenConverter,
+      KeycloakJwtTokenConverter keycloakJwtTokenConverter, JwtDecoder jwtDecoder,
+      MeterRegistry meterRegistry,
+      @Value("${application.jwt.cache-maximum-size:10000}") long jwtCacheMaximumSize,
       @Value("${application.api.public-path}") String pubUrl,
       @Value("${application.api.admin-path}") String adminUrl,
       @Value("${application.api.user-path}") String userUrl)
@@ -71,12 +78,23 @@ class SecurityConfiguration {
                 .requestMatchers(adminUrl+ "/**").hasRole("ADMIN")
                 .anyRequest().authenticated())
         .oauth2ResourceServer(
-            oauth2 -> oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(keycloakJwtTokenConverter)))
+            oauth2 -> oauth2.jwt(jwt -> jwt.authenticationManager(
+                jwtAuthenticationManager(jwtDecoder, keycloakJwtTokenConverter, meterRegistry,
+                    jwtCacheMaximumSize))))
         .sessionManagement(
             session -> session.sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED))
         .build();
   }
 
+  private static AuthenticationManager jwtAuthenticationManager(JwtDecoder jwtDecoder,
+      KeycloakJwtTokenConverter keycloakJwtTokenConverter, MeterRegistry meterRegistry,
+      long maximumSize) {
+    JwtAuthenticationProvider provider = new JwtAuthenticationProvider(jwtDecoder);
+    provider.setJwtAuthenticationConverter(keycloakJwtTokenConverter);
+    return new CachingJwtAuthenticationManager(new ProviderManager(provider), maximumSize,
+        meterRegistry);
+  }
+
   @Bean
   CorsConfigurationSource corsConfigurationSource(
       @Value("${application.cors.allowed-origins}") String allowedOrigins) {
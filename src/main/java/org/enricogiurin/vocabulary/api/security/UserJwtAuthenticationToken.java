@@ -0,0 +1,52 @@
+package org.enricogiurin.vocabulary.api.security;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collection;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+/**
+ * Authentication of a Keycloak access token carrying the internal id of the user, resolved once
+ * when the token is converted.
+ */
+public class UserJwtAuthenticationToken extends JwtAuthenticationToken {
+
+  private final Integer userId;
+
+  /**
+   * @param userId the internal id of the user, null if the user is not in the DB
+   */
+  public UserJwtAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities,
+      String name, Integer userId) {
+    super(jwt, authorities, name);
+    this.userId = userId;
+  }
+
+  /**
+   * @return the internal id of the user, null if the user was not in the DB when the token was
+   * converted
+   */
+  public Integer getUserId() {
+    return userId;
+  }
+}
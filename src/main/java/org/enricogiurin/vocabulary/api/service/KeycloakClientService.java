@@ -21,27 +21,38 @@ package org.enricogiurin.vocabulary.api.service;
  */
 
 
+import static org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME;
+
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.Response;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.enricogiurin.vocabulary.api.exception.DataConflictException;
 import org.enricogiurin.vocabulary.api.exception.KeycloakException;
 import org.enricogiurin.vocabulary.api.model.KeycloakUser;
+import org.enricogiurin.vocabulary.api.model.RealmUser;
 import org.enricogiurin.vocabulary.api.model.User;
 import org.enricogiurin.vocabulary.api.repository.UserRepository;
 import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.Keycloak;
-import org.keycloak.admin.client.resource.GroupsResource;
 import org.keycloak.admin.client.resource.UserResource;
 import org.keycloak.admin.client.resource.UsersResource;
 import org.keycloak.representations.idm.CredentialRepresentation;
-import org.keycloak.representations.idm.GroupRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @Slf4j
@@ -57,28 +68,79 @@ public class KeycloakClientService {
 
   private final Keycloak keycloakClient;
   private final UserRepository userRepository;
+  private final KeycloakGroupCache groupCache;
+  private final Executor taskExecutor;
   private final String redirectUri;
   private final boolean skipEmail;
 
 
   KeycloakClientService(final Keycloak keycloakClient,
       final UserRepository userRepository,
+      final KeycloakGroupCache groupCache,
+      @Qualifier(APPLICATION_TASK_EXECUTOR_BEAN_NAME) final Executor taskExecutor,
       @Value("${application.spa.url}") final String redirectUri,
       @Value("${application.keycloak-client-service.skip-email:false}") final boolean skipEmail) {
     this.keycloakClient = keycloakClient;
     this.userRepository = userRepository;
+    this.groupCache = groupCache;
+    this.taskExecutor = taskExecutor;
     this.redirectUri = redirectUri;
     this.skipEmail = skipEmail;
   }
 
-  public List<UserRepresentation> userList() {
-    List<UserRepresentation> list = keycloakClient.realm(REALM_VOCABULARY)
+  /**
+   * A page of the users of the realm, merged with the users registered in the database.
+   *
+   * @param first the index of the first user
+   * @param max   the maximum number of users
+   */
+  public List<RealmUser> userList(int first, int max) {
+    List<UserRepresentation> users = keycloakClient.realm(REALM_VOCABULARY)
         .users()
-        .list();
-    list.forEach(ur -> log.info("user: {}", ur.getUsername()));
-    return list;
+        .search(null, first, max, true);
+    Map<String, User> registered = userRepository.findByKeycloakIds(
+        users.stream().map(UserRepresentation::getId).toList());
+    return users.stream()
+        .map(user -> toRealmUser(user, registered.get(user.getId())))
+        .toList();
+  }
+
+  /**
+   * Iterate over all the users of the realm, listing them {@code pageSize} at a time.
+   */
+  public void forEachUser(int pageSize, Consumer<RealmUser> action) {
+    for (int first = 0; ; first += pageSize) {
+      List<RealmUser> page = userList(first, pageSize);
+      page.forEach(action);
+      if (page.size() < pageSize) {
+        return;
+      }
+    }
+  }
+
+  private static RealmUser toRealmUser(UserRepresentation user, User registered) {
+    return RealmUser.builder()
+        .keycloakId(user.getId())
+        .username(user.getUsername())
+        .email(user.getEmail())
+        .firstName(user.getFirstName())
+        .lastName(user.getLastName())
+        .enabled(Boolean.TRUE.equals(user.isEnabled()))
+        .emailVerified(Boolean.TRUE.equals(user.isEmailVerified()))
+        .createdTimestamp(user.getCreatedTimestamp())
+        .uuid(registered == null ? null : registered.uuid())
+        .build();
   }
 
+  /**
+   * Register a new user in Keycloak and in the database. Once the user is created, the Keycloak
+   * admin calls that don't depend on each other run concurrently on the
+   * {@code applicationTaskExecutor}: the password and the group of the user are set while the user
+   * is saved in the database. The actions email is sent once the transaction is committed, off
+   * the request.
+   *
+   * @return the Keycloak id of the new user
+   */
   @Transactional
   public String createNewUser(KeycloakUser user) {
     UserRepresentation userRepresentation = getUserRepresentation(user);
@@ -102,15 +164,72 @@ public class KeycloakClientService {
     }
     UserResource userResource = usersResource.get(userId);
     final String password = randomPassword();
-    setPasswordRenew(userResource, password);
-    setGroup(userResource);
-    saveUser(userResource);
-    sendActionsEmail(userResource);
+    CompletableFuture<Void> passwordSet = CompletableFuture.runAsync(
+        () -> setPasswordRenew(userResource, password), taskExecutor);
+    CompletableFuture<Void> groupJoined = CompletableFuture.runAsync(
+        () -> setGroup(userResource), taskExecutor);
+    try {
+      saveUser(userRepresentation, userId);
+    } catch (RuntimeException e) {
+      // the Keycloak calls must not outlive the request, their failures are kept as suppressed
+      awaitAfter(e, passwordSet, groupJoined);
+      throw e;
+    }
+    await(passwordSet, groupJoined);
+    afterCommit(() -> CompletableFuture
+        .runAsync(() -> sendActionsEmail(userResource), taskExecutor)
+        .exceptionally(e -> {
+          log.error("Failed to send the actions email to userId: {}", userId, e);
+          return null;
+        }));
     log.info("user: {} - userId: {} has been successfully created",
         userRepresentation.getUsername(), userId);
     return userId;
   }
 
+  /**
+   * Wait for all the futures, rethrowing the failure of the first one that failed.
+   */
+  private static void await(CompletableFuture<?>... futures) {
+    try {
+      CompletableFuture.allOf(futures).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Wait for all the futures after {@code failure}, adding their failures to it as suppressed.
+   */
+  private static void awaitAfter(RuntimeException failure, CompletableFuture<?>... futures) {
+    for (CompletableFuture<?> future : futures) {
+      try {
+        future.join();
+      } catch (CompletionException | CancellationException e) {
+        failure.addSuppressed(e.getCause() != null ? e.getCause() : e);
+      }
+    }
+  }
+
+  /**
+   * Run {@code action} once the current transaction is committed, right away without one.
+   */
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
   UserRepresentation getUserRepresentation(KeycloakUser user) {
     UserRepresentation userRepresentation = new UserRepresentation();
     userRepresentation.setUsername(user.username());                 // username in Keycloak
@@ -130,21 +249,29 @@ public class KeycloakClientService {
     userResource.resetPassword(cred);
   }
 
+  /**
+   * Join the group {@value #GROUP_USERS}, its id is cached: if the group is no longer found the
+   * groups are listed again and the join retried once.
+   */
   void setGroup(UserResource userResource) {
-    GroupsResource groups = keycloakClient.realm(REALM_VOCABULARY).groups();
-    GroupRepresentation group = groups.groups().stream()
-        .filter(g -> GROUP_USERS.equals(g.getName()))
-        .findFirst()
-        .orElseThrow(() -> new RuntimeException("Group not found: " + GROUP_USERS));
-    userResource.joinGroup(group.getId());
+    try {
+      userResource.joinGroup(groupCache.getId(GROUP_USERS));
+    } catch (NotFoundException e) {
+      log.warn("group {} not found, refreshing the group ids", GROUP_USERS);
+      groupCache.refresh();
+      userResource.joinGroup(groupCache.getId(GROUP_USERS));
+    }
   }
 
-  void saveUser(UserResource userResource) {
-    UserRepresentation userRepresentation = userResource.toRepresentation();
+  /**
+   * Save the user in the database from the representation sent to Keycloak, rather than fetching
+   * it back.
+   */
+  void saveUser(UserRepresentation userRepresentation, String keycloakId) {
     User newUser = User.builder()
         .email(userRepresentation.getEmail())
         .username(userRepresentation.getUsername())
-        .keycloakId(userRepresentation.getId())
+        .keycloakId(keycloakId)
         .build();
     User added = userRepository.add(newUser);
     log.info("Inserted user: {}", added);
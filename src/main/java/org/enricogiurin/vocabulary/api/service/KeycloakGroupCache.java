@@ -0,0 +1,113 @@
+package org.enricogiurin.vocabulary.api.service;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.enricogiurin.vocabulary.api.service.KeycloakClientService.REALM_VOCABULARY;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.enricogiurin.vocabulary.api.exception.KeycloakException;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.representations.idm.GroupRepresentation;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * The ids of the Keycloak groups of the realm by name. Listing the groups is an admin call
+ * proportional to the number of groups: it is done once at startup and then only by
+ * {@link #refresh()}, e.g. when a cached id is no longer found.
+ * <p>
+ * The time of the last refresh and the number of groups are exposed on the actuator info
+ * endpoint, which is public: the names of the groups are not.
+ */
+@Component
+@Slf4j
+class KeycloakGroupCache implements InfoContributor {
+
+  private final Keycloak keycloakClient;
+  // not synchronized: the lock is held during an HTTP call and would pin a virtual thread
+  private final ReentrantLock refreshLock = new ReentrantLock();
+  private volatile Map<String, String> idsByName = Map.of();
+  private volatile Instant refreshedAt;
+
+  KeycloakGroupCache(Keycloak keycloakClient) {
+    this.keycloakClient = keycloakClient;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  void resolveOnStartup() {
+    try {
+      refresh();
+    } catch (RuntimeException e) {
+      log.warn("Unable to resolve the Keycloak groups at startup, will retry on first use", e);
+    }
+  }
+
+  /**
+   * @return the id of the group, listing the groups only if it is not cached yet
+   * @throws KeycloakException if there is no such group
+   */
+  String getId(String name) {
+    String id = idsByName.get(name);
+    if (id == null) {
+      refresh();
+      id = idsByName.get(name);
+    }
+    if (id == null) {
+      throw new KeycloakException("Group not found: " + name);
+    }
+    return id;
+  }
+
+  /**
+   * List the groups of the realm again, replacing the cached ids.
+   */
+  void refresh() {
+    Instant requestedAt = Instant.now();
+    refreshLock.lock();
+    try {
+      if (refreshedAt != null && refreshedAt.isAfter(requestedAt)) {
+        // refreshed by a concurrent caller while waiting for the lock
+        return;
+      }
+      idsByName = keycloakClient.realm(REALM_VOCABULARY).groups().groups().stream()
+          .collect(Collectors.toUnmodifiableMap(GroupRepresentation::getName,
+              GroupRepresentation::getId));
+      refreshedAt = Instant.now();
+      log.info("resolved the ids of the Keycloak groups: {}", idsByName.keySet());
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  @Override
+  public void contribute(Info.Builder builder) {
+    builder.withDetail("keycloakGroups", Map.of(
+        "count", idsByName.size(),
+        "refreshedAt", refreshedAt == null ? "never" : refreshedAt.toString()));
+  }
+}
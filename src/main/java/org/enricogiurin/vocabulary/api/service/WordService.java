@@ -20,55 +20,256 @@ package org.enricogiurin.vocabulary.api.service;
  * #L%
  */
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.yourrents.services.common.searchable.FilterCriteria;
 import com.yourrents.services.common.searchable.Searchable;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.RequiredArgsConstructor;
-import org.enricogiurin.vocabulary.api.exception.DataNotFoundException;
+import org.enricogiurin.vocabulary.api.conf.WordProperties;
+import org.enricogiurin.vocabulary.api.exception.BadRequestException;
+import org.enricogiurin.vocabulary.api.model.CountMode;
+import org.enricogiurin.vocabulary.api.model.CursorPage;
 import org.enricogiurin.vocabulary.api.model.Word;
-import org.enricogiurin.vocabulary.api.repository.UserRepository;
+import org.enricogiurin.vocabulary.api.model.WordBatchItem;
+import org.enricogiurin.vocabulary.api.model.WordFormat;
+import org.enricogiurin.vocabulary.api.model.WordImportResult;
 import org.enricogiurin.vocabulary.api.repository.WordRepository;
-import org.springframework.data.domain.Page;
+import org.enricogiurin.vocabulary.api.validation.ValidationGroups;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 public class WordService {
 
-  private final UserRepository userRepository;
+  private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+      .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+      .build();
+  private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+      .addColumn("uuid")
+      .addColumn("sentence")
+      .addColumn("translation")
+      .addColumn("description")
+      .addColumn("language")
+      .addColumn("languageTo")
+      .setUseHeader(true)
+      .build();
+
   private final WordRepository wordRepository;
+  private final WordProperties wordProperties;
+  private final Validator validator;
+  private final ObjectMapper objectMapper;
 
-  public Word createNewWord(Word word, String subject) {
-    Integer userId = findUserIdByKeycloakId(subject);
+  public Word createNewWord(Word word, Integer userId) {
     return wordRepository.create(word, userId);
   }
 
-  public Word updateAnExistingWord(UUID uuid, Word word, String subject) {
-    Integer userId = findUserIdByKeycloakId(subject);
+  /**
+   * Create a batch of words. Every word is validated on its own: the valid ones are created
+   * together, the invalid ones are reported with their errors.
+   *
+   * @return one item per word, in the same order
+   * @throws BadRequestException if the batch exceeds the configured max size
+   */
+  public List<WordBatchItem> createNewWords(List<Word> words, Integer userId) {
+    if (words.size() > wordProperties.getBatchMaxSize()) {
+      throw new BadRequestException("batch size " + words.size()
+          + " exceeds the max size of " + wordProperties.getBatchMaxSize());
+    }
+    List<List<String>> errors = words.stream()
+        .map(this::validate)
+        .toList();
+    List<Word> validWords = IntStream.range(0, words.size())
+        .filter(i -> errors.get(i).isEmpty())
+        .mapToObj(words::get)
+        .toList();
+    // createAll returns the words in the order of validWords
+    Iterator<Word> created = wordRepository.createAll(validWords, userId).iterator();
+    return IntStream.range(0, words.size())
+        .mapToObj(i -> errors.get(i).isEmpty()
+            ? new WordBatchItem(i, created.next(), List.of())
+            : new WordBatchItem(i, null, errors.get(i)))
+        .toList();
+  }
+
+  /**
+   * Import words streaming the input: every row is validated on its own, the valid ones are copied
+   * to the database in chunks while reading, the invalid ones are skipped and reported.
+   *
+   * @throws BadRequestException if the input can't be parsed, nothing is imported in this case
+   */
+  public WordImportResult importWords(InputStream input, WordFormat format, Integer userId) {
+    List<String> errors = new ArrayList<>();
+    AtomicLong rejected = new AtomicLong();
+    try (MappingIterator<Word> rows = readerFor(format).readValues(input)) {
+      Stream<Word> validRows = readRows(rows)
+          .filter(word -> {
+            List<String> violations = validate(word);
+            if (violations.isEmpty()) {
+              return true;
+            }
+            rejected.incrementAndGet();
+            if (errors.size() < wordProperties.getImportMaxErrors()) {
+              errors.add("line " + rows.getCurrentLocation().getLineNr() + ": "
+                  + String.join(", ", violations));
+            }
+            return false;
+          });
+      long imported = wordRepository.copyIn(validRows, userId,
+          wordProperties.getImportChunkSize());
+      return new WordImportResult(imported, rejected.get(), errors);
+    } catch (IOException e) {
+      throw new BadRequestException("can't read the " + format + " input: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Export all the words of the user, sorted by sentence, writing them to {@code output} while they
+   * are read from the database. The words are read in keyset paginated chunks, each one in its own
+   * transaction: a slow client doesn't hold a connection of the pool while the previous chunk is
+   * written. The words changed during the export may be exported as they were or as they are.
+   */
+  public void exportWords(OutputStream output, WordFormat format, Integer userId)
+      throws IOException {
+    Pageable chunk = PageRequest.of(0, wordProperties.getExportFetchSize(),
+        Sort.by(WordRepository.SENTENCE_ALIAS));
+    try (SequenceWriter writer = writerFor(format).writeValues(output)) {
+      String cursor = null;
+      CursorPage<Word> window;
+      do {
+        window = wordRepository.findAfter(FilterCriteria.of(), chunk, cursor, userId);
+        for (Word word : window.content()) {
+          writer.write(word);
+        }
+        cursor = window.nextCursor();
+      } while (window.hasNext());
+    }
+  }
+
+  public Word updateAnExistingWord(UUID uuid, Word word, Integer userId) {
     return wordRepository.update(uuid, word, userId);
   }
 
-  public void deleteAnExistingWord(UUID uuid, String subject) {
-    Integer userId = findUserIdByKeycloakId(subject);
+  public void deleteAnExistingWord(UUID uuid, Integer userId) {
     wordRepository.delete(uuid, userId);
   }
 
-  public Optional<Word> findByExternalId(UUID externalId, String subject) {
-    Integer userId = findUserIdByKeycloakId(subject);
+  public Optional<Word> findByExternalId(UUID externalId, Integer userId) {
     return wordRepository.findByExternalId(externalId, userId);
   }
 
-  public Page<Word> find(Searchable filter, Pageable pageable, String subject) {
-    Integer userId = findUserIdByKeycloakId(subject);
-    return wordRepository.find(filter, pageable, userId);
+  /**
+   * @param countMode how to compute the total number of words, the configured default when null
+   */
+  public Slice<Word> find(Searchable filter, Pageable pageable, CountMode countMode,
+      Integer userId) {
+    return wordRepository.find(filter, pageable,
+        countMode != null ? countMode : wordProperties.getCountMode(), userId);
+  }
+
+  public Slice<Word> search(String query, Pageable pageable, Integer userId) {
+    return wordRepository.search(query, pageable, userId);
   }
 
-  private Integer findUserIdByKeycloakId(String subject) {
-    return userRepository.findUserIdByKeycloakId(subject).orElseThrow(
-        () -> new DataNotFoundException(
-            "User with subject: " + subject + " not present in the DB"));
+  /**
+   * @param limit the max number of words, capped to the configured fuzzy max results
+   */
+  public List<Word> findSimilar(String query, int limit, Integer userId) {
+    if (limit < 1) {
+      throw new BadRequestException("limit must be positive: " + limit);
+    }
+    return wordRepository.findSimilar(query,
+        Math.min(limit, wordProperties.getFuzzyMaxResults()), userId);
   }
 
+  public CursorPage<Word> findAfter(Searchable filter, Pageable pageable, String cursor,
+      Integer userId) {
+    return wordRepository.findAfter(filter, pageable, cursor, userId);
+  }
+
+  private ObjectReader readerFor(WordFormat format) {
+    return switch (format) {
+      case NDJSON -> objectMapper.readerFor(Word.class);
+      case CSV -> CSV_MAPPER.readerFor(Word.class).with(CsvSchema.emptySchema().withHeader());
+    };
+  }
+
+  private ObjectWriter writerFor(WordFormat format) {
+    return switch (format) {
+      case NDJSON -> objectMapper.writerFor(Word.class).withRootValueSeparator("\n");
+      case CSV -> CSV_MAPPER.writerFor(Word.class).with(CSV_SCHEMA);
+    };
+  }
+
+  /**
+   * Stream the rows turning the parsing errors, that the iterator can only throw unchecked, into
+   * a {@link BadRequestException}.
+   */
+  private static Stream<Word> readRows(MappingIterator<Word> rows) {
+    Iterator<Word> iterator = new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        try {
+          return rows.hasNextValue();
+        } catch (IOException e) {
+          throw invalidRow(rows, e);
+        }
+      }
+
+      @Override
+      public Word next() {
+        try {
+          return rows.nextValue();
+        } catch (IOException e) {
+          throw invalidRow(rows, e);
+        }
+      }
+    };
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+  }
+
+  private static BadRequestException invalidRow(MappingIterator<Word> rows, IOException e) {
+    return new BadRequestException(
+        "invalid row at line " + rows.getCurrentLocation().getLineNr() + ": "
+            + e.getMessage(), e);
+  }
+
+  private List<String> validate(Word word) {
+    if (word == null) {
+      return List.of("word must not be null");
+    }
+    return validator.validate(word, ValidationGroups.Post.class).stream()
+        .map(ConstraintViolation::getMessage)
+        .sorted()
+        .toList();
+  }
+
+
 
 }
@@ -0,0 +1,40 @@
+-- #%L
+-- Vocabulary API
+-- %%
+-- Copyright (C) 2024 Vocabulary Team
+-- %%
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+-- 
+--      http://www.apache.org/licenses/LICENSE-2.0
+-- 
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+-- #L%
+
+-- indexes matching the access paths of WordRepository: every query is scoped to the owner
+
+CREATE INDEX word_user_id_sentence_idx
+    ON vocabulary.word (user_id, sentence);
+
+CREATE INDEX word_user_id_external_id_idx
+    ON vocabulary.word (user_id, external_id);
+
+CREATE INDEX word_user_id_language_idx
+    ON vocabulary.word (user_id, language, language_to);
+
+
+-- trigram indexes backing the contains/containsIgnoreCase filters (LIKE/ILIKE '%...%')
+-- the extension lives in public so that its functions and operators are on the default search_path
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+
+CREATE INDEX word_sentence_trgm_idx
+    ON vocabulary.word USING gin (sentence public.gin_trgm_ops);
+
+CREATE INDEX word_translation_trgm_idx
+    ON vocabulary.word USING gin (translation public.gin_trgm_ops);
@@ -0,0 +1,49 @@
+-- #%L
+-- Vocabulary API
+-- %%
+-- Copyright (C) 2024 Vocabulary Team
+-- %%
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+-- 
+--      http://www.apache.org/licenses/LICENSE-2.0
+-- 
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+-- #L%
+
+-- full-text search over sentence, translation and description
+-- the text search configuration follows the language of each text, the description has no
+-- language of its own and uses the simple configuration
+
+CREATE FUNCTION vocabulary.language_regconfig(lang vocabulary.language)
+    RETURNS regconfig
+    LANGUAGE sql
+    IMMUTABLE
+    PARALLEL SAFE
+AS
+$$
+SELECT CASE lang
+           WHEN 'English' THEN 'pg_catalog.english'
+           WHEN 'Spanish' THEN 'pg_catalog.spanish'
+           WHEN 'French' THEN 'pg_catalog.french'
+           WHEN 'German' THEN 'pg_catalog.german'
+           WHEN 'Italian' THEN 'pg_catalog.italian'
+           WHEN 'Russian' THEN 'pg_catalog.russian'
+           ELSE 'pg_catalog.simple'
+           END::regconfig
+$$;
+
+ALTER TABLE vocabulary.word
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector(vocabulary.language_regconfig(language), sentence), 'A') ||
+        setweight(to_tsvector(vocabulary.language_regconfig(language_to), translation), 'B') ||
+        setweight(to_tsvector('pg_catalog.simple'::regconfig, coalesce(description, '')), 'C')
+        ) STORED;
+
+CREATE INDEX word_search_vector_idx
+    ON vocabulary.word USING gin (search_vector);
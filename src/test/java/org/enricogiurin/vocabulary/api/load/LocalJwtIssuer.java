@@ -0,0 +1,130 @@
+package org.enricogiurin.vocabulary.api.load;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stand-in for the Keycloak realm: serves the JWK set of a local RSA key at the certs endpoint of
+ * the realm and signs access tokens with the claims read by {@code KeycloakJwtTokenConverter}.
+ * <p>
+ * Point {@code application.keycloak.url} to {@link #getUrl()} to have the application validate the
+ * tokens against it.
+ */
+class LocalJwtIssuer implements AutoCloseable {
+
+  static final String REALM_PATH = "/realms/vocabulary";
+  static final String CERTS_PATH = REALM_PATH + "/protocol/openid-connect/certs";
+
+  private static final Duration TOKEN_LIFESPAN = Duration.ofHours(1);
+
+  private final RSAKey key;
+  private final HttpServer server;
+
+  private LocalJwtIssuer(RSAKey key, HttpServer server) {
+    this.key = key;
+    this.server = server;
+  }
+
+  static LocalJwtIssuer start() {
+    try {
+      RSAKey key = new RSAKeyGenerator(2048)
+          .keyID(UUID.randomUUID().toString())
+          .keyUse(KeyUse.SIGNATURE)
+          .algorithm(JWSAlgorithm.RS256)
+          .generate();
+      byte[] jwks = new JWKSet(key.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+      HttpServer server = HttpServer.create(
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+      server.createContext(CERTS_PATH, exchange -> {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, jwks.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+          body.write(jwks);
+        }
+      });
+      server.start();
+      return new LocalJwtIssuer(key, server);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (JOSEException e) {
+      throw new IllegalStateException("Unable to generate the signing key", e);
+    }
+  }
+
+  String getUrl() {
+    return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+  }
+
+  /**
+   * @param roles the roles of the user in {@code clientId}, e.g. {@code USER}
+   * @return a signed access token
+   */
+  String issue(String subject, String username, String clientId, String... roles) {
+    Instant now = Instant.now();
+    JWTClaimsSet claims = new JWTClaimsSet.Builder()
+        .issuer(getUrl() + REALM_PATH)
+        .subject(subject)
+        .claim("preferred_username", username)
+        .claim("resource_access", Map.of(clientId, Map.of("roles", List.of(roles))))
+        .issueTime(Date.from(now))
+        .expirationTime(Date.from(now.plus(TOKEN_LIFESPAN)))
+        .build();
+    SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256)
+        .keyID(key.getKeyID())
+        .type(JOSEObjectType.JWT)
+        .build(), claims);
+    try {
+      jwt.sign(new RSASSASigner(key));
+    } catch (JOSEException e) {
+      throw new IllegalStateException("Unable to sign the token", e);
+    }
+    return jwt.serialize();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
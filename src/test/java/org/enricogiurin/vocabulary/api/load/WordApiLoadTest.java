@@ -0,0 +1,290 @@
+package org.enricogiurin.vocabulary.api.load;
+
+/*-
+ * #%L
+ * Vocabulary API
+ * %%
+ * Copyright (C) 2024 - 2025 Vocabulary Team
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.enricogiurin.vocabulary.api.jooq.vocabulary.Tables.USER;
+import static org.enricogiurin.vocabulary.api.jooq.vocabulary.Tables.WORD;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.enricogiurin.vocabulary.api.VocabularyTestConfiguration;
+import org.enricogiurin.vocabulary.api.model.Language;
+import org.enricogiurin.vocabulary.api.model.Word;
+import org.enricogiurin.vocabulary.api.repository.WordRepository;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Load test of the /me/words endpoints: the application runs on a random port, with the tokens
+ * issued and validated by a {@link LocalJwtIssuer} in place of Keycloak, and is called over HTTP
+ * by a client running every request on its own virtual thread.
+ * <p>
+ * Excluded from the default build, run it with {@code mvn -Pload-test test}. The load is tuned
+ * with the system properties {@code load.users}, {@code load.words} (seeded per user),
+ * {@code load.requests} (per endpoint) and {@code load.concurrency}. The p50/p99 latency and the
+ * throughput of every endpoint are logged at the end of the run.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "spring.websecurity.debug=false",
+    "logging.level.org.jooq.tools.LoggerListener=INFO",
+    "logging.level.org.springframework.transaction=INFO",
+    "logging.level.org.springframework.test.context.transaction=INFO"})
+@Import(VocabularyTestConfiguration.class)
+@TestInstance(Lifecycle.PER_CLASS)
+@Slf4j
+class WordApiLoadTest {
+
+  static final int USERS = Integer.getInteger("load.users", 20);
+  static final int WORDS = Integer.getInteger("load.words", 200);
+  static final int REQUESTS = Integer.getInteger("load.requests", 2000);
+  static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+
+  static final ObjIntConsumer<String> NO_CHECK = (body, i) -> {
+  };
+
+  static final LocalJwtIssuer issuer = LocalJwtIssuer.start();
+
+  @DynamicPropertySource
+  static void keycloak(DynamicPropertyRegistry registry) {
+    registry.add("application.keycloak.url", issuer::getUrl);
+  }
+
+  @LocalServerPort
+  int port;
+
+  @Value("${application.api.user-path}/words")
+  String basePath;
+
+  @Value("${application.keycloak.client-id}")
+  String clientId;
+
+  @Autowired
+  DSLContext dsl;
+
+  @Autowired
+  WordRepository wordRepository;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  final List<Integer> userIds = new ArrayList<>();
+  final List<String> tokens = new ArrayList<>();
+  final List<List<UUID>> words = new ArrayList<>();
+  final List<Report> reports = new ArrayList<>();
+  ExecutorService executor;
+  HttpClient client;
+
+  @BeforeAll
+  void setUp() {
+    for (int u = 0; u < USERS; u++) {
+      String keycloakId = UUID.randomUUID().toString();
+      String username = "load-" + u;
+      Integer userId = dsl.insertInto(USER)
+          .set(USER.KEYCLOAKID, keycloakId)
+          .set(USER.USERNAME, username)
+          .returningResult(USER.ID)
+          .fetchSingle(USER.ID);
+      int user = u;
+      wordRepository.copyIn(IntStream.range(0, WORDS)
+          .mapToObj(i -> new Word(null, "sentence " + user + "-" + i,
+              "translation " + user + "-" + i, null, Language.ENGLISH, Language.ITALIAN)),
+          userId, WORDS);
+      userIds.add(userId);
+      tokens.add(issuer.issue(keycloakId, username, clientId, "USER"));
+      words.add(dsl.select(WORD.EXTERNAL_ID)
+          .from(WORD)
+          .where(WORD.USER_ID.eq(userId))
+          .fetch(WORD.EXTERNAL_ID));
+    }
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    client = HttpClient.newBuilder()
+        .executor(executor)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+  }
+
+  @AfterAll
+  void tearDown() {
+    reports.forEach(report -> log.info("{}", report));
+    client.close();
+    executor.close();
+    dsl.deleteFrom(WORD).where(WORD.USER_ID.in(userIds)).execute();
+    dsl.deleteFrom(USER).where(USER.ID.in(userIds)).execute();
+    issuer.close();
+  }
+
+  @Test
+  void wordsApi() throws Exception {
+    // warm up the JIT, the connection pools and the JWK set of the decoder
+    run("warm-up", REQUESTS / 4, i -> get(i % USERS, uri("?page=0&size=20")), 200, NO_CHECK);
+
+    run("list", REQUESTS, i -> get(i % USERS,
+        uri("?page=" + (i / USERS) % 10 + "&size=20&sort=sentence")), 200, NO_CHECK);
+    run("get", REQUESTS, i -> get(i % USERS, uri("/" + word(i))), 200, NO_CHECK);
+
+    // the i-th word is created and then deleted by the user of the i-th request
+    UUID[] created = new UUID[REQUESTS];
+    run("create", REQUESTS, i -> request(i % USERS, uri(""))
+        .header("Content-Type", "application/json")
+        .POST(BodyPublishers.ofString("""
+            {"sentence": "load %d", "translation": "carico %d",
+             "language": "ENGLISH", "languageTo": "ITALIAN"}
+            """.formatted(i, i)))
+        .build(), 201, (body, i) -> created[i] = UUID.fromString(uuid(body)));
+
+    run("update", REQUESTS, i -> request(i % USERS, uri("/" + word(i)))
+        .header("Content-Type", "application/json")
+        .method("PATCH", BodyPublishers.ofString("""
+            {"description": "updated %d"}
+            """.formatted(i)))
+        .build(), 200, NO_CHECK);
+
+    run("delete", REQUESTS, i -> request(i % USERS, uri("/" + created[i]))
+        .DELETE()
+        .build(), 204, NO_CHECK);
+  }
+
+  private void run(String name, int requests, IntFunction<HttpRequest> request,
+      int expectedStatus, ObjIntConsumer<String> onResponse) throws InterruptedException {
+    long[] latencies = new long[requests];
+    AtomicInteger errors = new AtomicInteger();
+    Semaphore inFlight = new Semaphore(CONCURRENCY);
+    long start = System.nanoTime();
+    try (ExecutorService requestExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < requests; i++) {
+        int index = i;
+        inFlight.acquire();
+        requestExecutor.submit(() -> {
+          try {
+            long sent = System.nanoTime();
+            HttpResponse<String> response = client.send(request.apply(index),
+                BodyHandlers.ofString());
+            latencies[index] = System.nanoTime() - sent;
+            if (response.statusCode() == expectedStatus) {
+              onResponse.accept(response.body(), index);
+            } else {
+              errors.incrementAndGet();
+            }
+          } catch (Exception e) {
+            errors.incrementAndGet();
+          } finally {
+            inFlight.release();
+          }
+          return null;
+        });
+      }
+    }
+    Report report = Report.of(name, latencies, errors.get(), System.nanoTime() - start);
+    reports.add(report);
+    assertThat(name + " errors", report.errors(), equalTo(0));
+  }
+
+  private HttpRequest get(int user, URI uri) {
+    return request(user, uri).GET().build();
+  }
+
+  private HttpRequest.Builder request(int user, URI uri) {
+    return HttpRequest.newBuilder(uri)
+        .header("Authorization", "Bearer " + tokens.get(user))
+        .timeout(Duration.ofSeconds(30));
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + basePath + path);
+  }
+
+  /**
+   * A word of the user of the i-th request.
+   */
+  private UUID word(int i) {
+    List<UUID> userWords = words.get(i % USERS);
+    return userWords.get((i / USERS) % userWords.size());
+  }
+
+  private String uuid(String body) {
+    try {
+      return objectMapper.readTree(body).get("uuid").asText();
+    } catch (Exception e) {
+      throw new IllegalStateException("Unexpected response: " + body, e);
+    }
+  }
+
+  record Report(String name, int requests, int errors, double throughput, double p50,
+                double p99) {
+
+    static Report of(String name, long[] latencies, int errors, long elapsed) {
+      long[] sorted = latencies.clone();
+      Arrays.sort(sorted);
+      return new Report(name, latencies.length, errors,
+          latencies.length / (elapsed / 1e9),
+          percentile(sorted, 0.50) / 1e6,
+          percentile(sorted, 0.99) / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(percentile * sorted.length) - 1;
+      return sorted[Math.max(index, 0)];
+    }
+
+    @Override
+    public String toString() {
+      return "%-8s %6d requests %4d errors %9.1f req/s  p50 %7.2f ms  p99 %7.2f ms"
+          .formatted(name, requests, errors, throughput, p50, p99);
+    }
+  }
+}
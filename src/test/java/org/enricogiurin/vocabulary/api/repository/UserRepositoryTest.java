@@ -24,12 +24,16 @@ package org.enricogiurin.vocabulary.api.repository;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.enricogiurin.vocabulary.api.VocabularyTestConfiguration;
 import org.enricogiurin.vocabulary.api.model.User;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -44,6 +48,8 @@ class UserRepositoryTest {
   @Autowired
   UserRepository userRepository;
 
+  @Autowired
+  CacheManager cacheManager;
 
 
   @Test
@@ -58,6 +64,17 @@ class UserRepositoryTest {
   }
 
 
+  @Test
+  void findByKeycloakIds() {
+    //when
+    Map<String, User> users = userRepository.findByKeycloakIds(
+        List.of(KEYCLOAK_ID, "0a3d2c4b-8e79-4a5c-95d1-13c96c2ef4b7", "unknown"));
+    //then
+    assertThat(users).containsOnlyKeys(KEYCLOAK_ID, "0a3d2c4b-8e79-4a5c-95d1-13c96c2ef4b7");
+    assertThat(users.get(KEYCLOAK_ID).username()).isEqualTo("enrico");
+    assertThat(userRepository.findByKeycloakIds(List.of())).isEmpty();
+  }
+
   @Test
   void add() {
     //given
@@ -100,4 +117,30 @@ class UserRepositoryTest {
     assertThat(userId).isNotNull();
     assertThat(userId).isEqualTo(1000000);
   }
+
+  @Test
+  void findUserIdByKeycloakIdIsCached() {
+    Cache cache = cacheManager.getCache(UserRepository.USER_ID_CACHE);
+    assertThat(cache).isNotNull();
+    cache.clear();
+    userRepository.findUserIdByKeycloakId(KEYCLOAK_ID).orElseThrow();
+    assertThat(cache.get(KEYCLOAK_ID, Integer.class)).isEqualTo(1000000);
+  }
+
+  @Test
+  void findUnknownKeycloakIdIsNotCached() {
+    Cache cache = cacheManager.getCache(UserRepository.USER_ID_CACHE);
+    assertThat(cache).isNotNull();
+    assertThat(userRepository.findUserIdByKeycloakId("unknown")).isEmpty();
+    assertThat(cache.get("unknown")).isNull();
+  }
+
+  @Test
+  void addEvictsTheCachedUserId() {
+    Cache cache = cacheManager.getCache(UserRepository.USER_ID_CACHE);
+    assertThat(cache).isNotNull();
+    cache.put("aaa", -1);
+    userRepository.add(new User(null, "john", "john@gmail.com", "aaa"));
+    assertThat(cache.get("aaa")).isNull();
+  }
 }
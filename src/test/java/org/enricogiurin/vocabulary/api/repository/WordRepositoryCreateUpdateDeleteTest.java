@@ -27,8 +27,11 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThrows;
 
 import com.yourrents.services.common.util.exception.DataNotFoundException;
+import com.yourrents.services.common.searchable.FilterCriteria;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.enricogiurin.vocabulary.api.VocabularyTestConfiguration;
 import org.enricogiurin.vocabulary.api.model.Language;
 import org.enricogiurin.vocabulary.api.model.Word;
@@ -37,6 +40,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
 
 
@@ -47,6 +51,7 @@ class WordRepositoryCreateUpdateDeleteTest {
 
   static final int HELLO_ID = 1000000;
   static final int USER_ENRICO_ID = 1000000;
+  static final int USER_LUCIO_ID = 1000001;
 
   @Autowired
   WordRepository wordRepository;
@@ -71,6 +76,38 @@ class WordRepositoryCreateUpdateDeleteTest {
 
   }
 
+  @Test
+  void createAll() {
+    List<Word> words = List.of(
+        new Word(null, "dog", "der Hund", null, Language.ENGLISH, Language.GERMAN),
+        new Word(null, "bird", "der Vogel", "a bird", Language.ENGLISH, Language.GERMAN));
+    List<Word> result = wordRepository.createAll(words, USER_ENRICO_ID);
+    assertThat(result.size(), equalTo(2));
+    assertThat(result.get(0).sentence(), equalTo("dog"));
+    assertThat(result.get(1).sentence(), equalTo("bird"));
+    assertThat(result.get(1).description(), equalTo("a bird"));
+    assertThat(result.get(1).uuid(), notNullValue());
+  }
+
+  @Test
+  void copyIn() {
+    Stream<Word> words = Stream.of(
+        new Word(null, "dog", "der Hund", null, Language.ENGLISH, Language.GERMAN),
+        new Word(null, "bird", "der \"Vogel\"", "", Language.ENGLISH, Language.GERMAN),
+        new Word(null, "fish", "der Fisch", "a, fish", Language.ENGLISH, Language.GERMAN));
+    long rows = wordRepository.copyIn(words, USER_ENRICO_ID, 2);
+    assertThat(rows, equalTo(3L));
+    List<Word> created = wordRepository.find(FilterCriteria.of(), PageRequest.of(0, 10),
+            USER_ENRICO_ID)
+        .filter(word -> List.of("dog", "bird", "fish").contains(word.sentence()))
+        .toList();
+    assertThat(created.size(), equalTo(3));
+    Word bird = created.stream().filter(word -> word.sentence().equals("bird")).findAny()
+        .orElseThrow();
+    assertThat(bird.translation(), equalTo("der \"Vogel\""));
+    assertThat(bird.description(), equalTo(""));
+  }
+
   @Test
   void deleteAnExistingWord() {
     Word word = wordRepository.findById(HELLO_ID, USER_ENRICO_ID).orElseThrow();
@@ -80,6 +117,14 @@ class WordRepositoryCreateUpdateDeleteTest {
     assertThat(wordOptional.isEmpty(), equalTo(true));
   }
 
+  @Test
+  void deleteAWordOfAnotherUser() {
+    Word word = wordRepository.findById(HELLO_ID, USER_ENRICO_ID).orElseThrow();
+    assertThrows(DataNotFoundException.class,
+        () -> wordRepository.delete(word.uuid(), USER_LUCIO_ID));
+    assertThat(wordRepository.findById(HELLO_ID, USER_ENRICO_ID).isPresent(), equalTo(true));
+  }
+
   /*
   javadoc: public static UUID randomUUID()
   Static factory to retrieve a type 4 (pseudo randomly generated) UUID.
@@ -105,6 +150,23 @@ class WordRepositoryCreateUpdateDeleteTest {
     assertThat(result.description(), equalTo("new description"));
   }
 
+  @Test
+  void updateWithoutChanges() {
+    Word word = wordRepository.findById(HELLO_ID, USER_ENRICO_ID).orElseThrow();
+    Word updateWord = new Word(null, null, null, null, null, null);
+    Word result = wordRepository.update(word.uuid(), updateWord, USER_ENRICO_ID);
+    assertThat(result, equalTo(word));
+  }
+
+  @Test
+  void updateAWordOfAnotherUser() {
+    Word word = wordRepository.findById(HELLO_ID, USER_ENRICO_ID).orElseThrow();
+    Word updateWord = new Word(null, null, "new translation", null, null, null);
+    DataNotFoundException ex = assertThrows(DataNotFoundException.class,
+        () -> wordRepository.update(word.uuid(), updateWord, USER_LUCIO_ID));
+    assertThat(ex.getMessage(), equalTo("Word not found: " + word.uuid()));
+  }
+
   @Test
   void updateANotExistingWord() {
     UUID randomUUID = UUID.randomUUID();
@@ -20,17 +20,34 @@ package org.enricogiurin.vocabulary.api.repository;
  * #L%
  */
 
+import static org.enricogiurin.vocabulary.api.jooq.vocabulary.Tables.WORD;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.iterableWithSize;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.yourrents.services.common.searchable.FilterCondition;
 import com.yourrents.services.common.searchable.FilterCriteria;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import org.enricogiurin.vocabulary.api.VocabularyTestConfiguration;
+import org.enricogiurin.vocabulary.api.exception.BadRequestException;
+import org.enricogiurin.vocabulary.api.jooq.CompiledQueryCache;
 import org.enricogiurin.vocabulary.api.jooq.CustomJooqUtils;
+import org.enricogiurin.vocabulary.api.model.CountMode;
+import org.enricogiurin.vocabulary.api.model.CursorPage;
+import org.enricogiurin.vocabulary.api.model.Language;
 import org.enricogiurin.vocabulary.api.model.Word;
+import org.jooq.DSLContext;
+import org.jooq.Select;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,6 +56,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Order;
 import org.springframework.transaction.annotation.Transactional;
@@ -57,6 +75,12 @@ class WordRepositoryTest {
   @Autowired
   WordRepository wordRepository;
 
+  @Autowired
+  DSLContext dsl;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
   @BeforeEach
   void setUp() {
 
@@ -72,6 +96,22 @@ class WordRepositoryTest {
 
   }
 
+  @Test
+  void findByExternalIdAndKeycloakId() {
+    Word word = wordRepository.findByExternalId(
+        HELLO_UUID, "f95cb50f-5f3b-4b71-9f8b-3495d47622cf").orElseThrow();
+    assertThat(word.sentence(), equalTo("Hello"));
+    assertThat(wordRepository.findByExternalId(HELLO_UUID, "unknown").isPresent(),
+        equalTo(false));
+  }
+
+  @Test
+  void getSelectDoesNotReadTheUserTable() {
+    Select<?> query = wordRepository.getSelect(USER_ENRICO_ID)
+        .and(WORD.EXTERNAL_ID.eq(HELLO_UUID));
+    assertThat(dsl.explain(query).plan(), not(containsString("\"user\"")));
+  }
+
   @Test
   void findById() {
     Word word = wordRepository.findById(HELLO_ID, USER_ENRICO_ID).orElseThrow();
@@ -118,5 +158,177 @@ class WordRepositoryTest {
     assertThat(word.sentence(), equalTo("Latte"));
   }
 
+  @Test
+  void findByLanguageEqEnumName() {
+    Pageable pageable = PageRequest.of(0, 10, Sort.by(Order.asc("sentence")));
+    FilterCriteria filter = FilterCriteria.of(
+        FilterCondition.of(WordRepository.LANGUAGE_TO_ALIAS, CustomJooqUtils.EQUAL, "german"));
+    Page<Word> page = wordRepository.find(filter, pageable, USER_ENRICO_ID);
+    assertThat(page.getContent().stream().map(Word::sentence).toList(),
+        equalTo(List.of("Latte")));
+  }
+
+  @Test
+  void findByLanguageIn() {
+    Pageable pageable = PageRequest.of(0, 10, Sort.by(Order.asc("sentence")));
+    FilterCriteria filter = FilterCriteria.of(
+        FilterCondition.of(WordRepository.LANGUAGE_TO_ALIAS, CustomJooqUtils.IN,
+            "GERMAN, Italian"));
+    Page<Word> page = wordRepository.find(filter, pageable, USER_ENRICO_ID);
+    assertThat(page.getTotalElements(), equalTo(5L));
+  }
+
+  @Test
+  void findReusesTheCompiledQuery() {
+    Pageable pageable = PageRequest.of(0, 10, Sort.by(Order.asc("sentence")));
+    Page<Word> german = wordRepository.find(FilterCriteria.of(
+        FilterCondition.of(WordRepository.LANGUAGE_TO_ALIAS, CustomJooqUtils.EQUAL, "German")),
+        pageable, USER_ENRICO_ID);
+    double hits = compiledQueryHits();
+    Page<Word> italian = wordRepository.find(FilterCriteria.of(
+        FilterCondition.of(WordRepository.LANGUAGE_TO_ALIAS, CustomJooqUtils.EQUAL, "Italian")),
+        pageable, USER_ENRICO_ID);
+    assertThat(compiledQueryHits(), equalTo(hits + 1));
+    assertThat(german.getTotalElements() + italian.getTotalElements(), equalTo(5L));
+    assertThat(italian.getContent().stream().map(Word::languageTo).distinct().toList(),
+        equalTo(List.of(Language.ITALIAN)));
+  }
+
+  private double compiledQueryHits() {
+    return meterRegistry.get("cache.gets")
+        .tag("cache", CompiledQueryCache.CACHE_NAME)
+        .tag("result", "hit")
+        .functionCounter()
+        .count();
+  }
+
+  @Test
+  void findByUuidEq() {
+    Pageable pageable = PageRequest.of(0, 10);
+    FilterCriteria filter = FilterCriteria.of(
+        FilterCondition.of(WordRepository.UUID_ALIAS, CustomJooqUtils.EQUAL,
+            HELLO_UUID.toString()));
+    Page<Word> page = wordRepository.find(filter, pageable, USER_ENRICO_ID);
+    assertThat(page.getContent().stream().map(Word::uuid).toList(),
+        equalTo(List.of(HELLO_UUID)));
+  }
+
+  @Test
+  void findWithUnconvertibleValue() {
+    Pageable pageable = PageRequest.of(0, 10);
+    FilterCriteria byLanguage = FilterCriteria.of(
+        FilterCondition.of(WordRepository.LANGUAGE_ALIAS, CustomJooqUtils.EQUAL, "Klingon"));
+    assertThrows(BadRequestException.class,
+        () -> wordRepository.find(byLanguage, pageable, USER_ENRICO_ID));
+    FilterCriteria byUuid = FilterCriteria.of(
+        FilterCondition.of(WordRepository.UUID_ALIAS, CustomJooqUtils.EQUAL, "not-a-uuid"));
+    assertThrows(BadRequestException.class,
+        () -> wordRepository.find(byUuid, pageable, USER_ENRICO_ID));
+  }
+
+  @Test
+  void findWithoutCount() {
+    Pageable pageable = PageRequest.of(0, 3, Sort.by(Order.asc("sentence")));
+    Slice<Word> first = wordRepository.find(FilterCriteria.of(), pageable, CountMode.NONE,
+        USER_ENRICO_ID);
+    assertThat(first, not(instanceOf(Page.class)));
+    assertThat(first, iterableWithSize(3));
+    assertThat(first.hasNext(), equalTo(true));
+    Slice<Word> second = wordRepository.find(FilterCriteria.of(), pageable.next(), CountMode.NONE,
+        USER_ENRICO_ID);
+    assertThat(second, iterableWithSize(2));
+    assertThat(second.hasNext(), equalTo(false));
+  }
+
+  @Test
+  void findWithEstimatedCount() {
+    Pageable pageable = PageRequest.of(0, 2, Sort.by(Order.asc("sentence")));
+    Slice<Word> result = wordRepository.find(FilterCriteria.of(), pageable, CountMode.ESTIMATED,
+        USER_ENRICO_ID);
+    assertThat(result, instanceOf(Page.class));
+    assertThat(result, iterableWithSize(2));
+    assertThat(((Page<Word>) result).getTotalElements(), greaterThanOrEqualTo(2L));
+  }
+
+  @Test
+  void searchMatchesEveryLanguage() {
+    Pageable pageable = PageRequest.of(0, 10);
+    assertThat(wordRepository.search("houses", pageable, USER_ENRICO_ID).getContent()
+        .stream().map(Word::sentence).toList(), equalTo(List.of("my house")));
+    assertThat(wordRepository.search("gatto", pageable, USER_ENRICO_ID).getContent()
+        .stream().map(Word::sentence).toList(), equalTo(List.of("cat")));
+    assertThat(wordRepository.search("salutation", pageable, USER_LUCIO_ID).getContent()
+        .stream().map(Word::translation).toList(), equalTo(List.of("Ciao")));
+  }
+
+  @Test
+  void searchRanksTheSentenceFirst() {
+    Slice<Word> result = wordRepository.search("house", PageRequest.of(0, 1), USER_ENRICO_ID);
+    assertThat(result.getContent(), iterableWithSize(1));
+    assertThat(result.getContent().getFirst().sentence(), equalTo("my house"));
+    assertThat(result.hasNext(), equalTo(false));
+    assertThat(wordRepository.search("milk", PageRequest.of(0, 10), USER_ENRICO_ID)
+        .getContent().stream().map(Word::sentence).toList(), equalTo(List.of("Latte")));
+  }
+
+  @Test
+  void findSimilar() {
+    assertThat(wordRepository.findSimilar("helo", 10, USER_ENRICO_ID).stream()
+        .map(Word::sentence).toList(), equalTo(List.of("Hello")));
+    assertThat(wordRepository.findSimilar("gato", 10, USER_ENRICO_ID).getFirst().sentence(),
+        equalTo("cat"));
+    assertThat(wordRepository.findSimilar("gato", 1, USER_ENRICO_ID), iterableWithSize(1));
+    assertThat(wordRepository.findSimilar("xyz", 10, USER_ENRICO_ID), iterableWithSize(0));
+  }
+
+  @Test
+  void findAfterWalksAllWordsInSortOrder() {
+    Sort sort = Sort.by(Order.desc(WordRepository.LANGUAGE_TO_ALIAS),
+        Order.asc(WordRepository.SENTENCE_ALIAS));
+    List<Word> expected = wordRepository.find(FilterCriteria.of(),
+        PageRequest.of(0, Integer.MAX_VALUE, sort), USER_ENRICO_ID).getContent();
+
+    List<Word> result = new ArrayList<>();
+    String cursor = null;
+    CursorPage<Word> window;
+    do {
+      window = wordRepository.findAfter(FilterCriteria.of(), PageRequest.of(0, 2, sort), cursor,
+          USER_ENRICO_ID);
+      result.addAll(window.content());
+      cursor = window.nextCursor();
+    } while (window.hasNext());
+
+    assertThat(result, equalTo(expected));
+    assertThat(window.nextCursor(), nullValue());
+  }
+
+  @Test
+  void findAfterWithCursorOfAnotherSort() {
+    Pageable bySentence = PageRequest.of(0, 2, Sort.by(Order.asc(WordRepository.SENTENCE_ALIAS)));
+    String cursor = wordRepository.findAfter(FilterCriteria.of(), bySentence, null, USER_ENRICO_ID)
+        .nextCursor();
+    Pageable byLanguage = PageRequest.of(0, 2, Sort.by(Order.asc(WordRepository.LANGUAGE_ALIAS),
+        Order.asc(WordRepository.SENTENCE_ALIAS), Order.asc(WordRepository.TRANSLATION_ALIAS)));
+    assertThrows(BadRequestException.class,
+        () -> wordRepository.findAfter(FilterCriteria.of(), byLanguage, cursor, USER_ENRICO_ID));
+  }
+
+  @Test
+  void findAfterWithCursorOfAnotherSortOfTheSameLength() {
+    Pageable bySentence = PageRequest.of(0, 2, Sort.by(Order.asc(WordRepository.SENTENCE_ALIAS)));
+    String cursor = wordRepository.findAfter(FilterCriteria.of(), bySentence, null, USER_ENRICO_ID)
+        .nextCursor();
+    Pageable byTranslation = PageRequest.of(0, 2,
+        Sort.by(Order.asc(WordRepository.TRANSLATION_ALIAS)));
+    assertThrows(BadRequestException.class,
+        () -> wordRepository.findAfter(FilterCriteria.of(), byTranslation, cursor,
+            USER_ENRICO_ID));
+    Pageable bySentenceDesc = PageRequest.of(0, 2,
+        Sort.by(Order.desc(WordRepository.SENTENCE_ALIAS)));
+    assertThrows(BadRequestException.class,
+        () -> wordRepository.findAfter(FilterCriteria.of(), bySentenceDesc, cursor,
+            USER_ENRICO_ID));
+  }
+
 
 }
@@ -22,6 +22,8 @@ package org.enricogiurin.vocabulary.api.rest.me;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
@@ -35,11 +37,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.yourrents.services.common.searchable.FilterCriteria;
+import java.util.Collections;
 import java.util.UUID;
 import org.enricogiurin.vocabulary.api.VocabularyTestConfiguration;
 import org.enricogiurin.vocabulary.api.model.KeycloakUser;
 import org.enricogiurin.vocabulary.api.model.Language;
 import org.enricogiurin.vocabulary.api.model.Word;
+import org.enricogiurin.vocabulary.api.model.WordFormat;
 import org.enricogiurin.vocabulary.api.repository.WordRepository;
 import org.enricogiurin.vocabulary.api.security.PrincipalAccessor;
 import org.junit.jupiter.api.BeforeEach;
@@ -49,6 +54,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -77,7 +83,7 @@ class WordControllerCreateUpdateDeleteTest {
 
   @BeforeEach
   void setUp() {
-    when(accessor.getSubject()).thenReturn("f95cb50f-5f3b-4b71-9f8b-3495d47622cf");
+    when(accessor.getUserId()).thenReturn(USER_ENRICO_ID);
   }
 
   @Test
@@ -120,6 +126,104 @@ class WordControllerCreateUpdateDeleteTest {
         .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
   }
 
+  @Test
+  void createNewWordsInBatch() throws Exception {
+    mvc.perform(post(basePath + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                [
+                  {
+                     "sentence": "dog",
+                     "translation": "der Hund",
+                     "language": "%1$s",
+                     "languageTo": "%2$s"
+                  },
+                  {
+                     "translation": "die Katze",
+                     "language": "%1$s",
+                     "languageTo": "%2$s"
+                  },
+                  {
+                     "sentence": "bird",
+                     "translation": "der Vogel",
+                     "language": "%1$s",
+                     "languageTo": "%2$s"
+                  }
+                ]
+                """.formatted(Language.ENGLISH.name(), Language.GERMAN.name())))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$", hasSize(3)))
+        .andExpect(jsonPath("$[0].index", is(0)))
+        .andExpect(jsonPath("$[0].word.sentence", is("dog")))
+        .andExpect(jsonPath("$[0].word.uuid").isNotEmpty())
+        .andExpect(jsonPath("$[1].word").isEmpty())
+        .andExpect(jsonPath("$[1].errors[0]", is(Word.SENTENCE_NOT_NULL_CONSTRAINT)))
+        .andExpect(jsonPath("$[2].word.sentence", is("bird")))
+        .andExpect(jsonPath("$[2].word.translation", is("der Vogel")))
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    assertThat(wordRepository.find(FilterCriteria.of(), PageRequest.of(0, 10), USER_ENRICO_ID)
+        .getTotalElements(), is(7L));
+  }
+
+  @Test
+  void createNewWordsInBatch_tooMany() throws Exception {
+    String word = """
+        {"sentence": "dog", "translation": "der Hund", "language": "%s", "languageTo": "%s"}
+        """.formatted(Language.ENGLISH.name(), Language.GERMAN.name());
+    mvc.perform(post(basePath + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[" + String.join(",", Collections.nCopies(501, word)) + "]"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void importNdjson() throws Exception {
+    mvc.perform(post(basePath + "/import")
+            .contentType(WordFormat.NDJSON_VALUE)
+            .content("""
+                {"sentence": "dog", "translation": "der Hund", "language": "ENGLISH", "languageTo": "GERMAN"}
+                {"translation": "die Katze", "language": "ENGLISH", "languageTo": "GERMAN"}
+                {"sentence": "bird", "translation": "der \\"Vogel\\"", "language": "ENGLISH", "languageTo": "GERMAN"}
+                """))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.imported", is(2)))
+        .andExpect(jsonPath("$.rejected", is(1)))
+        .andExpect(jsonPath("$.errors[0]", is("line 2: " + Word.SENTENCE_NOT_NULL_CONSTRAINT)))
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    assertThat(wordRepository.find(FilterCriteria.of(), PageRequest.of(0, 10), USER_ENRICO_ID)
+        .map(Word::translation).toList(), hasItem("der \"Vogel\""));
+  }
+
+  @Test
+  void importCsv() throws Exception {
+    mvc.perform(post(basePath + "/import")
+            .contentType(WordFormat.CSV_VALUE)
+            .content("""
+                sentence,translation,description,language,languageTo
+                dog,der Hund,,ENGLISH,GERMAN
+                "bird, small","der Vogel",a bird,ENGLISH,GERMAN
+                fish,der Fisch,,,GERMAN
+                """))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.imported", is(2)))
+        .andExpect(jsonPath("$.rejected", is(1)))
+        .andExpect(jsonPath("$.errors[0]", containsString(Word.LANGUAGE_NOT_NULL_CONSTRAINT)));
+    assertThat(wordRepository.find(FilterCriteria.of(), PageRequest.of(0, 10), USER_ENRICO_ID)
+        .map(Word::sentence).toList(), hasItem("bird, small"));
+  }
+
+  @Test
+  void importMalformedNdjson() throws Exception {
+    mvc.perform(post(basePath + "/import")
+            .contentType(WordFormat.NDJSON_VALUE)
+            .content("""
+                {"sentence": "dog", "translation": "der Hund", "language": "ENGLISH", "languageTo": "GERMAN"}
+                {"sentence": "cat",
+                """))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message", containsString("invalid row at line 3")));
+  }
+
   @Test
   void updateAnExistingWord() throws Exception {
     Word word = wordRepository.findById(HELLO_ID, USER_ENRICO_ID).orElseThrow();
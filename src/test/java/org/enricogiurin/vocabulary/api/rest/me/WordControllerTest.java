@@ -20,17 +20,26 @@ package org.enricogiurin.vocabulary.api.rest.me;
  * #L%
  */
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
 import java.util.UUID;
 import org.enricogiurin.vocabulary.api.VocabularyTestConfiguration;
+import org.enricogiurin.vocabulary.api.conf.WordProperties;
 import org.enricogiurin.vocabulary.api.model.Language;
+import org.enricogiurin.vocabulary.api.model.WordFormat;
+import org.enricogiurin.vocabulary.api.rest.PageSizeBudget;
 import org.enricogiurin.vocabulary.api.security.PrincipalAccessor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -39,6 +48,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -51,10 +61,17 @@ import org.springframework.transaction.annotation.Transactional;
 class WordControllerTest {
 
   static UUID HELLO_UUID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+  static final int USER_ENRICO_ID = 1000000;
 
   @Autowired
   MockMvc mvc;
 
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Autowired
+  WordProperties wordProperties;
+
   @MockitoBean
   PrincipalAccessor accessor;
 
@@ -63,7 +80,7 @@ class WordControllerTest {
 
   @BeforeEach
   void setUp() {
-    when(accessor.getSubject()).thenReturn("f95cb50f-5f3b-4b71-9f8b-3495d47622cf");
+    when(accessor.getUserId()).thenReturn(USER_ENRICO_ID);
   }
 
 
@@ -82,11 +99,159 @@ class WordControllerTest {
 
         .andExpect(jsonPath("$.page.totalPages", is(1)))
         .andExpect(jsonPath("$.page.totalElements", is(5)))
-        .andExpect(jsonPath("$.page.size", is(Integer.MAX_VALUE)))
+        .andExpect(jsonPath("$.page.size", is(500)))
         .andExpect(jsonPath("$.page.number", is(0)));
   }
 
 
+  @Test
+  void findCountsTheClampedPageSize() throws Exception {
+    double clamped = clampedRequests();
+    mvc.perform(get(basePath)
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("size", "1000"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.page.size", is(500)));
+    assertThat(clampedRequests(), is(clamped + 1));
+  }
+
+  @Test
+  void findWithEstimatedCount() throws Exception {
+    mvc.perform(get(basePath)
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("count", "ESTIMATED")
+            .param("size", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content", hasSize(2)))
+        .andExpect(jsonPath("$.page.size", is(2)))
+        .andExpect(jsonPath("$.page.number", is(0)))
+        .andExpect(jsonPath("$.page.totalElements").isNumber())
+        .andExpect(jsonPath("$.page.totalPages").isNumber())
+        .andExpect(jsonPath("$.pageable").doesNotExist());
+  }
+
+  @Test
+  void findWithoutCount() throws Exception {
+    mvc.perform(get(basePath)
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("count", "NONE")
+            .param("size", "2"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+        .andExpect(jsonPath("$.content", hasSize(2)))
+        .andExpect(jsonPath("$.content[0].sentence", is("cat")))
+        .andExpect(jsonPath("$.page.size", is(2)))
+        .andExpect(jsonPath("$.page.number", is(0)))
+        .andExpect(jsonPath("$.page.hasNext", is(true)))
+        .andExpect(jsonPath("$.page.totalElements").doesNotExist())
+        .andExpect(jsonPath("$.pageable").doesNotExist());
+  }
+
+  @Test
+  void findFirstWindowWithCursor() throws Exception {
+    mvc.perform(get(basePath)
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("cursor", "")
+            .param("size", "2"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+        .andExpect(jsonPath("$.content", hasSize(2)))
+        .andExpect(jsonPath("$.content[0].sentence", is("cat")))
+        .andExpect(jsonPath("$.size", is(2)))
+        .andExpect(jsonPath("$.hasNext", is(true)))
+        .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+  }
+
+  @Test
+  void findWithInvalidCursor() throws Exception {
+    mvc.perform(get(basePath)
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("cursor", "not-a-cursor"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void search() throws Exception {
+    mvc.perform(get(basePath + "/search")
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("q", "gatto"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+        .andExpect(jsonPath("$.content", hasSize(1)))
+        .andExpect(jsonPath("$.content[0].sentence", is("cat")))
+        .andExpect(jsonPath("$.page.number", is(0)))
+        .andExpect(jsonPath("$.page.hasNext", is(false)))
+        .andExpect(jsonPath("$.pageable").doesNotExist());
+  }
+
+  @Test
+  void findSimilar() throws Exception {
+    mvc.perform(get(basePath + "/fuzzy")
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("q", "tomkat")
+            .param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].sentence", is("tomcat")));
+  }
+
+  @Test
+  void findSimilarWithInvalidLimit() throws Exception {
+    mvc.perform(get(basePath + "/fuzzy")
+            .param("q", "tomcat")
+            .param("limit", "0"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void exportNdjson() throws Exception {
+    String body = mvc.perform(get(basePath + "/export"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(WordFormat.NDJSON_VALUE))
+        .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+            containsString("words.ndjson")))
+        .andReturn().getResponse().getContentAsString();
+    List<String> lines = body.lines().toList();
+    assertThat(lines, hasSize(5));
+    assertThat(lines.get(0), containsString("\"sentence\":\"cat\""));
+  }
+
+  @Test
+  void exportInChunks() throws Exception {
+    String expected = mvc.perform(get(basePath + "/export"))
+        .andReturn().getResponse().getContentAsString();
+    int fetchSize = wordProperties.getExportFetchSize();
+    wordProperties.setExportFetchSize(2);
+    try {
+      String body = mvc.perform(get(basePath + "/export"))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getContentAsString();
+      assertThat(body, is(expected));
+    } finally {
+      wordProperties.setExportFetchSize(fetchSize);
+    }
+  }
+
+  @Test
+  void exportCsv() throws Exception {
+    String body = mvc.perform(get(basePath + "/export")
+            .param("format", WordFormat.CSV.name()))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(WordFormat.CSV_VALUE))
+        .andReturn().getResponse().getContentAsString();
+    List<String> lines = body.lines().toList();
+    assertThat(lines, hasSize(6));
+    assertThat(lines.get(0), is("uuid,sentence,translation,description,language,languageTo"));
+    assertThat(lines.get(1), containsString(",cat,"));
+  }
+
+  private double clampedRequests() {
+    Counter counter = meterRegistry.find(PageSizeBudget.CLAMPED_METRIC)
+        .tag("endpoint", "find")
+        .counter();
+    return counter == null ? 0 : counter.count();
+  }
+
   @Test
   void findByUuid() throws Exception {
     mvc.perform(get(basePath + "/" + HELLO_UUID).contentType(MediaType.APPLICATION_JSON))
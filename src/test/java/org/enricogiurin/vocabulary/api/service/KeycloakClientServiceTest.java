@@ -22,20 +22,25 @@ package org.enricogiurin.vocabulary.api.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME;
 
 import dasniko.testcontainers.keycloak.KeycloakContainer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import org.enricogiurin.vocabulary.api.VocabularyTestConfiguration;
 import org.enricogiurin.vocabulary.api.exception.DataConflictException;
+import org.enricogiurin.vocabulary.api.exception.KeycloakException;
 import org.enricogiurin.vocabulary.api.model.KeycloakUser;
+import org.enricogiurin.vocabulary.api.model.RealmUser;
 import org.enricogiurin.vocabulary.api.repository.UserRepository;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.keycloak.admin.client.Keycloak;
-import org.keycloak.representations.idm.UserRepresentation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.transaction.annotation.Transactional;
@@ -57,6 +62,10 @@ class KeycloakClientServiceTest {
   @Autowired
   UserRepository userRepository;
 
+  @Autowired
+  @Qualifier(APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  Executor taskExecutor;
+
   KeycloakClientService keycloakClientService;
 
   @BeforeAll
@@ -72,23 +81,37 @@ class KeycloakClientServiceTest {
   @BeforeEach
   void setUp() {
     Keycloak keycloakAdminClient = KEYCLOAK_CONTAINER.getKeycloakAdminClient();
-    this.keycloakClientService = new KeycloakClientService(keycloakAdminClient, userRepository, "",
-        true);
+    this.keycloakClientService = new KeycloakClientService(keycloakAdminClient, userRepository,
+        new KeycloakGroupCache(keycloakAdminClient), taskExecutor, "", true);
   }
 
 
   @Test
   void userList() {
     //when
-    List<UserRepresentation> userRepresentationList = keycloakClientService.userList();
+    List<RealmUser> userList = keycloakClientService.userList(0, 10);
     //then
-    assertThat(userRepresentationList).isNotNull();
-    assertThat(userRepresentationList)
+    assertThat(userList).isNotNull();
+    assertThat(userList)
         .singleElement()
-        .extracting(UserRepresentation::getUsername)
+        .extracting(RealmUser::username)
         .isEqualTo("test-user");
   }
 
+  @Test
+  void forEachUser() {
+    //when
+    List<RealmUser> users = new ArrayList<>();
+    keycloakClientService.forEachUser(1, users::add);
+    //then
+    assertThat(users)
+        .extracting(RealmUser::username)
+        .contains("test-user")
+        .containsExactlyElementsOf(keycloakClientService.userList(0, 100).stream()
+            .map(RealmUser::username)
+            .toList());
+  }
+
   //to evaluate also if user is present in the KC test container
   @Test
   void createNewUser() {
@@ -124,4 +147,15 @@ class KeycloakClientServiceTest {
 
   }
 
+  @Test
+  void groupCache() {
+    //given
+    KeycloakGroupCache groupCache = new KeycloakGroupCache(
+        KEYCLOAK_CONTAINER.getKeycloakAdminClient());
+    //when-then
+    assertThat(groupCache.getId(KeycloakClientService.GROUP_USERS)).isNotBlank();
+    assertThatExceptionOfType(KeycloakException.class)
+        .isThrownBy(() -> groupCache.getId("unknown-group"));
+  }
+
 }